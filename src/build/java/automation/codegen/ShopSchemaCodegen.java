@@ -0,0 +1,519 @@
+package automation.codegen;
+
+import org.sqlite.SQLiteConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time generator of the typed query layer for shop.db.
+ *
+ * Reads the schema (the tables and their columns, via PRAGMA table_info) and
+ * writes one class per table: a record for its rows, a positional RowMapper,
+ * column-name constants, and query methods with the SQL fixed at build time
+ * (all, count, and by primary key). Tests then read the database through
+ * compiled code. A renamed column breaks the build, not a test run, and rows
+ * are mapped by index with no reflection and no map lookups.
+ *
+ * It lives in src/build, outside the main and test source sets, so it is never
+ * compiled into the artifact. Maven launches it as a single source file (java
+ * ShopSchemaCodegen.java ...) in the generate-test-sources phase (see pom.xml). It
+ * writes into target/generated-test-sources, which is compiled with the tests.
+ *
+ * The schema source is shop.schema.source. By default it is
+ * src/test/resources/schema/shop.sql, the checked-in script the stub server also
+ * builds its database from, so a plain build needs nothing running. When the
+ * app's real database is there (app-under-test/shop.db, or -Ddb.path=...), the
+ * pom generates from it instead, so the code matches the schema the tests run
+ * against, and the generator reports any table where the script has drifted from
+ * it. Any other source can be passed explicitly, e.g.
+ *
+ *   ./mvnw test -Dshop.schema.source=/path/to/shop.db
+ *
+ * The optional fourth argument is the script to fall back to. If the requested
+ * source is missing, the generator warns and generates from the script instead
+ * of failing the build; a drift report is a warning too, never a failure.
+ *
+ * Files whose content did not change are not rewritten, so incremental
+ * compilation is not triggered by a no-op build.
+ *
+ * Usage: ShopSchemaCodegen &lt;schema.sql | database.db&gt; &lt;output source root&gt; &lt;package&gt; [fallback.sql]
+ */
+public final class ShopSchemaCodegen {
+
+    private static final Set<String> JAVA_KEYWORDS = Set.of(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+        "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+        "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+        "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+        "volatile", "while", "record", "var", "yield", "sealed", "permits");
+
+    private ShopSchemaCodegen() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 3 && args.length != 4) {
+            throw new IllegalArgumentException(
+                "Usage: ShopSchemaCodegen <schema.sql | database.db> <output source root> <package> [fallback.sql]");
+        }
+        Path source = Path.of(args[0]);
+        Path packageDir = Path.of(args[1]).resolve(args[2].replace('.', '/'));
+        String packageName = args[2];
+        Path fallback = args.length == 4 ? Path.of(args[3]) : null;
+
+        if (fallback != null && !Files.isRegularFile(source)) {
+            System.out.println("⚠️ Schema source not found: " + source.toAbsolutePath()
+                + ". Generating from " + fallback + " instead.");
+            source = fallback;
+        }
+        List<Table> tables = readTables(source);
+        if (tables.isEmpty()) {
+            throw new IllegalStateException("No tables found in " + source);
+        }
+        if (fallback != null && !source.equals(fallback)) {
+            reportDrift(tables, readTables(fallback), source, fallback);
+        }
+
+        Files.createDirectories(packageDir);
+        Set<Path> written = new HashSet<>();
+        for (Table table : tables) {
+            Path file = packageDir.resolve(table.className() + ".java");
+            written.add(file);
+            writeIfChanged(file, render(table, packageName, source.getFileName().toString()));
+        }
+        removeStale(packageDir, written);
+    }
+
+    // ========================================================================
+    // SCHEMA
+    // ========================================================================
+
+    private static List<Table> readTables(Path source) throws IOException, SQLException {
+        try (Connection connection = open(source)) {
+            return readTables(connection);
+        }
+    }
+
+    /**
+     * Warn about every table whose columns differ between the database and the
+     * script, so the stub's schema is updated when the app's changes.
+     */
+    private static void reportDrift(List<Table> actual, List<Table> script, Path source, Path scriptPath) {
+        Set<String> names = new java.util.TreeSet<>();
+        actual.forEach(table -> names.add(table.name()));
+        script.forEach(table -> names.add(table.name()));
+        for (String name : names) {
+            Table inSource = find(actual, name);
+            Table inScript = find(script, name);
+            if (inSource == null || inScript == null || !inSource.equals(inScript)) {
+                System.out.println("⚠️ Schema drift in table " + name + ": " + source.getFileName()
+                    + " has " + describe(inSource) + ", " + scriptPath.getFileName() + " has " + describe(inScript));
+            }
+        }
+    }
+
+    private static Table find(List<Table> tables, String name) {
+        return tables.stream().filter(table -> table.name().equals(name)).findFirst().orElse(null);
+    }
+
+    private static String describe(Table table) {
+        return table == null ? "no such table" : table.columns().stream()
+            .map(column -> column.name() + " " + column.declaredType())
+            .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * A database file is opened read-only; a script is run into an in-memory database.
+     */
+    private static Connection open(Path source) throws IOException, SQLException {
+        if (!Files.isRegularFile(source)) {
+            throw new IllegalStateException("Schema source not found: " + source.toAbsolutePath());
+        }
+        if (!source.toString().endsWith(".sql")) {
+            SQLiteConfig config = new SQLiteConfig();
+            config.setReadOnly(true);
+            return config.createConnection("jdbc:sqlite:" + source.toAbsolutePath());
+        }
+        Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        String script = Files.readString(source, StandardCharsets.UTF_8).replaceAll("(?m)^\\s*--.*$", "");
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private static List<Table> readTables(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+
+        List<Table> tables = new ArrayList<>();
+        try (PreparedStatement info = connection.prepareStatement(
+                 "SELECT name, type, \"notnull\", pk FROM pragma_table_info(?) ORDER BY cid")) {
+            for (String name : names) {
+                info.setString(1, name);
+                List<Column> columns = new ArrayList<>();
+                try (ResultSet rs = info.executeQuery()) {
+                    while (rs.next()) {
+                        columns.add(new Column(rs.getString(1), rs.getString(2), rs.getBoolean(3), rs.getInt(4)));
+                    }
+                }
+                tables.add(new Table(name, columns));
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * A table and its columns, in declaration order.
+     */
+    private record Table(String name, List<Column> columns) {
+
+        String className() {
+            return pascalCase(name) + "Table";
+        }
+
+        /** The single primary-key column, or null (no key, or a composite one). */
+        Column primaryKey() {
+            List<Column> keys = columns.stream().filter(c -> c.pk() > 0).toList();
+            return keys.size() == 1 ? keys.get(0) : null;
+        }
+    }
+
+    /**
+     * A column as reported by PRAGMA table_info.
+     */
+    private record Column(String name, String declaredType, boolean notNull, int pk) {
+
+        /** INTEGER PRIMARY KEY is the rowid, which is never NULL even without NOT NULL. */
+        boolean nullable() {
+            return !notNull && pk == 0;
+        }
+
+        /** SQLite column affinity rules (https://www.sqlite.org/datatype3.html#determination_of_column_affinity). */
+        JavaType javaType() {
+            String type = declaredType == null ? "" : declaredType.toUpperCase(Locale.ROOT);
+            if (type.contains("INT")) {
+                return JavaType.INT;
+            }
+            if (type.contains("CHAR") || type.contains("CLOB") || type.contains("TEXT")) {
+                return JavaType.STRING;
+            }
+            if (type.contains("BLOB")) {
+                return JavaType.BYTES;
+            }
+            if (type.isEmpty()) {
+                return JavaType.OBJECT;
+            }
+            return JavaType.DOUBLE;
+        }
+
+        String javaTypeName() {
+            return nullable() ? javaType().boxed() : javaType().primitive();
+        }
+
+        String reader(int index) {
+            JavaType type = javaType();
+            return nullable() && type.nullableReader() != null
+                ? type.nullableReader() + "(row, " + index + ")"
+                : "row." + type.getter() + "(" + index + ")";
+        }
+
+        String fieldName() {
+            String camel = camelCase(name);
+            return JAVA_KEYWORDS.contains(camel) ? camel + "Value" : camel;
+        }
+
+        String constantName() {
+            return name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                .toUpperCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * How a column type is read and declared in Java.
+     */
+    private enum JavaType {
+        INT("int", "Integer", "getInt", "intOrNull"),
+        DOUBLE("double", "Double", "getDouble", "doubleOrNull"),
+        STRING("String", "String", "getString", null),
+        BYTES("byte[]", "byte[]", "getBytes", null),
+        OBJECT("Object", "Object", "getObject", null);
+
+        private final String primitive;
+        private final String boxed;
+        private final String getter;
+        private final String nullableReader;
+
+        JavaType(String primitive, String boxed, String getter, String nullableReader) {
+            this.primitive = primitive;
+            this.boxed = boxed;
+            this.getter = getter;
+            this.nullableReader = nullableReader;
+        }
+
+        String primitive() {
+            return primitive;
+        }
+
+        String boxed() {
+            return boxed;
+        }
+
+        String getter() {
+            return getter;
+        }
+
+        /** Helper that maps SQL NULL to null instead of 0 (null if the getter already does). */
+        String nullableReader() {
+            return nullableReader;
+        }
+    }
+
+    // ========================================================================
+    // RENDERING
+    // ========================================================================
+
+    private static String render(Table table, String packageName, String sourceName) {
+        List<Column> columns = table.columns();
+        Column key = table.primaryKey();
+        String columnList = columns.stream().map(c -> quoteIdentifier(c.name())).collect(Collectors.joining(", "));
+        String from = " FROM " + quoteIdentifier(table.name());
+
+        // Nullable columns in MAPPER, and every by-key column lookup (no row = null), need a null-aware reader
+        Set<JavaType> nullableTypes = new HashSet<>();
+        for (Column column : columns) {
+            if (column.javaType().nullableReader() != null && (column.nullable() || (key != null && column != key))) {
+                nullableTypes.add(column.javaType());
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        if (!nullableTypes.isEmpty()) {
+            out.append("import automation.utils.DbRow;\n");
+        }
+        out.append("import automation.utils.DbUtils;\n");
+        out.append("import automation.utils.RowMapper;\n\n");
+        out.append("import java.sql.SQLException;\n");
+        out.append("import java.util.List;\n\n");
+
+        out.append("/**\n");
+        out.append(" * Typed access to the ").append(table.name()).append(" table.\n");
+        out.append(" *\n");
+        out.append(" * Generated by automation.codegen.ShopSchemaCodegen from ").append(sourceName)
+            .append(". Do not edit:\n");
+        out.append(" * change the schema and rebuild.\n");
+        out.append(" */\n");
+        out.append("public final class ").append(table.className()).append(" {\n\n");
+
+        out.append("    /** Table name. */\n");
+        out.append("    public static final String TABLE = \"").append(table.name()).append("\";\n\n");
+        for (Column column : columns) {
+            out.append("    /** Column ").append(column.name()).append(" (")
+                .append(column.declaredType().isEmpty() ? "no type" : column.declaredType())
+                .append(column.pk() > 0 ? ", primary key" : column.notNull() ? ", not null" : "")
+                .append("). */\n");
+            out.append("    public static final String ").append(column.constantName())
+                .append(" = \"").append(column.name()).append("\";\n");
+        }
+        out.append("\n");
+
+        out.append("    /** Every column, in declaration order (the order MAPPER reads them in). */\n");
+        out.append("    public static final String SELECT = \"SELECT ").append(escape(columnList))
+            .append(escape(from)).append("\";\n\n");
+
+        out.append("    /**\n");
+        out.append("     * One row of ").append(table.name()).append(".\n");
+        out.append("     */\n");
+        out.append("    public record Row(");
+        out.append(columns.stream().map(c -> c.javaTypeName() + " " + c.fieldName()).collect(Collectors.joining(", ")));
+        out.append(") {\n    }\n\n");
+
+        out.append("    /** Maps a row of {@link #SELECT} (or any query with the same columns in the same order) by position. */\n");
+        out.append("    public static final RowMapper<Row> MAPPER = row -> new Row(\n");
+        for (int i = 0; i < columns.size(); i++) {
+            out.append("        ").append(columns.get(i).reader(i + 1)).append(i + 1 < columns.size() ? ",\n" : "\n");
+        }
+        out.append("    );\n\n");
+
+        String orderBy = key != null ? " ORDER BY " + quoteIdentifier(key.name()) : "";
+        out.append("    private static final String SELECT_ALL = SELECT + \"").append(escape(orderBy)).append("\";\n");
+        out.append("    private static final String COUNT = \"SELECT COUNT(*)").append(escape(from)).append("\";\n");
+        if (key != null) {
+            String where = " WHERE " + quoteIdentifier(key.name()) + " = ?";
+            out.append("    private static final String SELECT_BY_").append(key.constantName())
+                .append(" = SELECT + \"").append(escape(where)).append("\";\n");
+            for (Column column : columns) {
+                if (column != key) {
+                    out.append("    private static final String SELECT_").append(column.constantName())
+                        .append("_BY_").append(key.constantName()).append(" =\n        \"SELECT ")
+                        .append(escape(quoteIdentifier(column.name()))).append(escape(from))
+                        .append(escape(where)).append("\";\n");
+                }
+            }
+        }
+        out.append("\n");
+
+        out.append("    private ").append(table.className()).append("() {\n    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * @param dbPath The absolute or relative path to the database.\n");
+        out.append("     * @return Every row").append(key != null ? ", ordered by " + key.name() : "").append(".\n");
+        out.append("     * @throws SQLException If the query fails.\n");
+        out.append("     */\n");
+        out.append("    public static List<Row> all(String dbPath) throws SQLException {\n");
+        out.append("        return DbUtils.query(dbPath, SELECT_ALL, MAPPER);\n");
+        out.append("    }\n\n");
+
+        out.append("    /**\n");
+        out.append("     * @param dbPath The absolute or relative path to the database.\n");
+        out.append("     * @return The number of rows.\n");
+        out.append("     * @throws SQLException If the query fails.\n");
+        out.append("     */\n");
+        out.append("    public static int count(String dbPath) throws SQLException {\n");
+        out.append("        return DbUtils.fetchInt(dbPath, COUNT);\n");
+        out.append("    }\n");
+
+        if (key != null) {
+            String keyType = key.javaType().primitive();
+            String keyParam = key.fieldName();
+            String by = "By" + pascalCase(key.name());
+
+            out.append("\n    /**\n");
+            out.append("     * @param dbPath The absolute or relative path to the database.\n");
+            out.append("     * @param ").append(keyParam).append(" The primary key.\n");
+            out.append("     * @return The row, or null if there is none.\n");
+            out.append("     * @throws SQLException If the query fails.\n");
+            out.append("     */\n");
+            out.append("    public static Row by").append(pascalCase(key.name())).append("(String dbPath, ").append(keyType).append(" ")
+                .append(keyParam).append(") throws SQLException {\n");
+            out.append("        return DbUtils.queryOne(dbPath, SELECT_BY_").append(key.constantName())
+                .append(", MAPPER, ").append(keyParam).append(");\n");
+            out.append("    }\n");
+
+            for (Column column : columns) {
+                if (column == key) {
+                    continue;
+                }
+                JavaType type = column.javaType();
+                String nullNote = column.nullable() ? " (also null if the value is SQL NULL)" : "";
+                out.append("\n    /**\n");
+                out.append("     * @param dbPath The absolute or relative path to the database.\n");
+                out.append("     * @param ").append(keyParam).append(" The primary key.\n");
+                out.append("     * @return The ").append(column.name()).append(" of that row, or null if there is none")
+                    .append(nullNote).append(".\n");
+                out.append("     * @throws SQLException If the query fails.\n");
+                out.append("     */\n");
+                out.append("    public static ").append(type.boxed()).append(" ").append(column.fieldName()).append(by)
+                    .append("(String dbPath, ").append(keyType).append(" ").append(keyParam)
+                    .append(") throws SQLException {\n");
+                out.append("        return DbUtils.queryOne(dbPath, SELECT_").append(column.constantName())
+                    .append("_BY_").append(key.constantName()).append(", row -> ")
+                    .append(type.nullableReader() != null ? type.nullableReader() + "(row, 1)" : "row." + type.getter() + "(1)")
+                    .append(", ").append(keyParam).append(");\n");
+                out.append("    }\n");
+            }
+        }
+
+        for (JavaType type : JavaType.values()) {
+            if (nullableTypes.contains(type)) {
+                out.append("\n    private static ").append(type.boxed()).append(" ").append(type.nullableReader())
+                    .append("(DbRow row, int index) throws SQLException {\n");
+                out.append("        ").append(type.primitive()).append(" value = row.").append(type.getter())
+                    .append("(index);\n");
+                out.append("        return row.wasNull() ? null : value;\n");
+                out.append("    }\n");
+            }
+        }
+
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static void writeIfChanged(Path file, String content) throws IOException {
+        if (!Files.exists(file) || !Files.readString(file, StandardCharsets.UTF_8).equals(content)) {
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Delete classes generated for tables that no longer exist.
+     */
+    private static void removeStale(Path packageDir, Set<Path> written) throws IOException {
+        try (Stream<Path> files = Files.list(packageDir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith("Table.java")).toList()) {
+                if (!written.contains(file)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    // ========================================================================
+    // NAMES
+    // ========================================================================
+
+    private static String pascalCase(String name) {
+        StringBuilder out = new StringBuilder();
+        for (String part : name.split("[^A-Za-z0-9]+")) {
+            if (!part.isEmpty()) {
+                out.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+            }
+        }
+        if (out.isEmpty() || !Character.isJavaIdentifierStart(out.charAt(0))) {
+            out.insert(0, 'T');
+        }
+        return out.toString();
+    }
+
+    private static String camelCase(String name) {
+        return uncapitalize(pascalCase(name));
+    }
+
+    private static String uncapitalize(String name) {
+        return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Double-quote an SQL identifier only when it needs it, to keep the generated SQL readable.
+     */
+    private static String quoteIdentifier(String name) {
+        return name.matches("[A-Za-z_][A-Za-z0-9_]*") ? name : "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Escape text for a Java string literal.
+     */
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -1,92 +1,147 @@
 package automation;
 
+import automation.utils.AnimationSuppression;
+import automation.utils.AppInstance;
+import automation.utils.AppInstances;
+import automation.utils.CartLock;
+import automation.utils.DbSnapshot;
+import automation.utils.DriverPool;
+import automation.utils.LazyDriver;
+import automation.utils.LeanMode;
+import automation.utils.TestConfig;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.TestInfo;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class BaseTest {
     protected WebDriver driver;
     protected String baseUrl;
     protected String dbPath;
+    private AppInstance appInstance;
+    private ReentrantLock cartLock;
+    private boolean lean;
+    private boolean noAnimations;
 
     /**
      * Load configuration from config.properties.
      * Falls back to defaults if properties file is missing.
      */
     protected Properties loadConfig() {
-        Properties properties = new Properties();
-        try (InputStream input = getClass().getClassLoader()
-                .getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.err.println("⚠️ config.properties not found. Using defaults.");
-                properties.setProperty("base.url", "http://localhost:3000");
-            } else {
-                properties.load(input);
-            }
-        } catch (IOException e) {
-            System.err.println("⚠️ Error loading config.properties: " + e.getMessage());
-            properties.setProperty("base.url", "http://localhost:3000");
-        }
-        return properties;
+        return TestConfig.asProperties();
     }
 
     /**
-     * Setup: Initialize WebDriver and load base URL.
+     * Setup: Load base URL and hand the test a lazy WebDriver handle.
+     * The browser is only leased from the pool when the test first uses it.
+     * Tests marked {@link UsesCart} also take the cart lock for this baseUrl.
      * Runs before each test (@BeforeEach).
      */
     @BeforeEach
-    public void setUp() {
-        Properties config = loadConfig();
-        baseUrl = config.getProperty("base.url", "http://localhost:3000");
+    public void setUp(TestInfo testInfo) {
+        baseUrl = TestConfig.get("base.url", "http://localhost:3000");
 
         // Load DB Path from config, or fallback to a default relative path
-        dbPath = config.getProperty("db.path", "app-under-test/shop.db");
-
-        // Configure Chrome options (headless mode for CI, headed for local debugging)
-        ChromeOptions options = new ChromeOptions();
-        
-        // Check if running in CI (via Maven flag or GitHub Actions environment)
-        String headlessProp = System.getProperty("headless");
-        String ciEnv = System.getenv("CI");
+        dbPath = TestConfig.get("db.path", "app-under-test/shop.db");
 
-        if ("true".equalsIgnoreCase(headlessProp) || ciEnv != null) {
-            options.addArguments("--headless");
+        // Isolated mode: this worker gets its own app instance and private shop.db
+        appInstance = AppInstances.acquire();
+        if (appInstance != null) {
+            baseUrl = appInstance.baseUrl();
+            dbPath = appInstance.dbPath();
         }
-        
-        // Additional options for stability
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--disable-blink-features=AutomationControlled");
 
-        // Initialize ChromeDriver (Selenium 4.6+ manages chromedriver automatically)
-        driver = new ChromeDriver(options);
+        // Lazy handle: DB/API-only tests never start Chrome. UI tests lease a
+        // warm session from the pool on their first WebDriver call, switched
+        // into (or out of) lean mode and animation suppression for this test.
+        lean = LeanMode.isEnabledByDefault() || isAnnotated(testInfo, LeanBrowser.class);
+        noAnimations = AnimationSuppression.isEnabledByDefault() || isAnnotated(testInfo, SuppressAnimations.class);
+        driver = LazyDriver.create(this::leaseBrowser);
 
-        // Set implicit wait (optional; Playwright-equivalent is explicit waits in tests)
-        driver.manage().timeouts().implicitlyWait(
-            java.time.Duration.ofSeconds(10)
-        );
+        // Parallel safety: one cart per server, so cart tests on the same server take turns
+        if (isAnnotated(testInfo, UsesCart.class)) {
+            cartLock = CartLock.acquire(baseUrl);
+        }
+
+        // Optional DB isolation: start from the run's golden snapshot, but only when
+        // nobody else can be using this DB's state (own instance, or the cart lock held)
+        if (DbSnapshot.isRestoreEnabled() && (appInstance != null || cartLock != null)) {
+            restoreGoldenDb();
+        }
 
-        System.out.println("✅ Browser initialized. Base URL: " + baseUrl);
+        System.out.println("✅ Test initialized. Base URL: " + baseUrl);
     }
 
     /**
-     * Teardown: Close the browser.
+     * Teardown: Return the browser to the pool (it is reset before reuse).
+     * Nothing to do if the test never started a browser.
      * Runs after each test (@AfterEach).
      */
     @AfterEach
     public void tearDown() {
-        if (driver != null) {
-            driver.quit();
-            System.out.println("✅ Browser closed.");
+        try {
+            WebDriver started = LazyDriver.startedDelegate(driver);
+            if (started != null) {
+                if (lean) {
+                    LeanMode.report(started);
+                }
+                DriverPool.release(started);
+                System.out.println("✅ Browser released.");
+            }
+        } finally {
+            CartLock.release(cartLock);
+            cartLock = null;
+            AppInstances.release(appInstance);
+            appInstance = null;
         }
     }
 
+    /**
+     * Lease a pooled session and switch lean mode and animation suppression for this test.
+     * If switching fails, the session never becomes the test's driver (so tearDown cannot
+     * release it); it is discarded here instead of leaking the Chrome process.
+     */
+    private WebDriver leaseBrowser() {
+        WebDriver leased = DriverPool.acquire();
+        try {
+            return AnimationSuppression.apply(LeanMode.apply(leased, lean), noAnimations);
+        } catch (RuntimeException e) {
+            DriverPool.discard(leased);
+            throw e;
+        }
+    }
+
+    /**
+     * Restore the DB to the snapshot taken the first time this DB was seen in the run.
+     * A few milliseconds, versus restarting the app.
+     */
+    private void restoreGoldenDb() {
+        try {
+            DbSnapshot.golden(dbPath).restore(dbPath);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to restore DB from golden snapshot: " + dbPath, e);
+        }
+    }
+
+    /**
+     * Check whether the current test method or its class carries the given annotation
+     * (e.g. {@link UsesCart}, {@link LeanBrowser}, {@link SuppressAnimations}).
+     */
+    private static boolean isAnnotated(TestInfo testInfo, Class<? extends Annotation> annotation) {
+        boolean onMethod = testInfo.getTestMethod()
+            .map(method -> method.isAnnotationPresent(annotation))
+            .orElse(false);
+        boolean onClass = testInfo.getTestClass()
+            .map(testClass -> testClass.isAnnotationPresent(annotation))
+            .orElse(false);
+        return onMethod || onClass;
+    }
+
     /**
      * Navigate to the base URL (equivalent to Playwright's go_home).
      */
@@ -102,4 +157,4 @@ public abstract class BaseTest {
     protected void navigateTo(String path) {
         driver.get(baseUrl + path);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package automation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a test (or every test in a class) with lean mode on: images, fonts and
+ * media are blocked through CDP so page loads only fetch what assertions need.
+ *
+ * Equivalent to browser.lean=true for just the annotated tests.
+ * See {@link automation.utils.LeanMode}.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface LeanBrowser {
+}
@@ -0,0 +1,21 @@
+package automation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a test (or every test in a class) with CSS transitions and animations
+ * disabled and page timers shortened, so notifications and layout shifts settle
+ * immediately.
+ *
+ * Equivalent to browser.animations.suppress=true for just the annotated tests.
+ * See {@link automation.utils.AnimationSuppression}.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SuppressAnimations {
+}
@@ -0,0 +1,21 @@
+package automation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test (or a whole test class) that reads or mutates the server-side cart.
+ *
+ * The app keeps a single cart per server, so when tests run in parallel BaseTest
+ * takes an exclusive lock on the test's baseUrl for the duration of any test
+ * carrying this annotation. Tests pointed at different app instances (different
+ * baseUrls) never contend; tests without the annotation never wait.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface UsesCart {
+}
@@ -1,10 +1,24 @@
 package automation.db;
 
 import automation.BaseTest;
+import automation.UsesCart;
+import automation.db.generated.CartTable;
+import automation.db.generated.ItemsTable;
+import automation.utils.CartFixture;
+import automation.utils.DbSnapshot;
 import automation.utils.DbUtils;
+import automation.utils.TestConfig;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DbSanityTest extends BaseTest {
@@ -13,17 +27,170 @@ public class DbSanityTest extends BaseTest {
     public void testDatabaseConnection() throws Exception {
         System.out.println("🔌 Connecting to Database at: " + dbPath);
 
-        // 1. Query the 'items' table (This table should always have data)
-        List<Map<String, Object>> items = DbUtils.fetchAll(dbPath, "SELECT * FROM items");
+        // 1. Stream the 'items' table (This table should always have data)
+        // Constant memory: one pass counts the rows and keeps only the first one
+        ItemsTable.Row[] first = new ItemsTable.Row[1];
+        long itemCount = DbUtils.forEach(dbPath, ItemsTable.SELECT, ItemsTable.MAPPER, item -> {
+            if (first[0] == null) {
+                first[0] = item;
+            }
+        });
         
         // 2. Print results
         System.out.println("✅ Connection Successful!");
-        System.out.println("📦 Found " + items.size() + " products in the catalog.");
+        System.out.println("📦 Found " + itemCount + " products in the catalog.");
         
         // 3. Simple Assertion
-        assertTrue(items.size() > 0, "The database should contain products.");
+        assertTrue(itemCount > 0, "The database should contain products.");
         
         // Optional: Print the first item name just to be sure
-        System.out.println("First Product: " + items.get(0).get("name"));
+        System.out.println("First Product: " + first[0].name());
+    }
+
+    @Test
+    @UsesCart
+    public void testCartFixtureViaDb() throws Exception {
+        // 1. Seed two items in one transaction; the cart's previous rows are replaced
+        CartFixture fixture = CartFixture.of(1, 3).with(2, 1);
+        fixture.applyViaDb(dbPath);
+
+        // 2. The table holds exactly the fixture
+        assertEquals(3, DbUtils.getCartQuantity(dbPath, 1));
+        assertEquals(1, DbUtils.getCartQuantity(dbPath, 2));
+        assertEquals(fixture.totalQuantity(), DbUtils.getCartTotal(dbPath));
+
+        // 3. An empty fixture clears the cart
+        CartFixture.empty().applyViaDb(dbPath);
+        assertEquals(0, DbUtils.getCartTotal(dbPath));
+        System.out.println("✅ Cart fixture via DB verified");
+    }
+
+    @Test
+    public void testStatementCacheDisabled(@TempDir Path dir) throws Exception {
+        // A private copy: its pools are created (and read their config) here
+        String copy = privateCopy(dir);
+        System.setProperty("db.statementCache.size", "0");
+        try {
+            // 1. The same SQL twice: each call must get a fresh, open statement
+            List<ItemsTable.Row> items = DbUtils.getItems(copy);
+            assertEquals(items, DbUtils.getItems(copy));
+
+            // 2. Writes and awaits work without a cache too
+            CartFixture.of(1, 2).applyViaDb(copy);
+            DbUtils.awaitCartQuantity(copy, 1, 2);
+            assertEquals(2, DbUtils.getCartQuantity(copy, 1));
+            System.out.println("✅ Queries work with db.statementCache.size=0");
+        } finally {
+            System.clearProperty("db.statementCache.size");
+            DbUtils.closeConnections(copy);
+        }
+    }
+
+    @Test
+    public void testSnapshotRestore(@TempDir Path dir) throws Exception {
+        String copy = privateCopy(dir);
+        CartFixture.of(1, 2).applyViaDb(copy);
+        List<CartTable.Row> cart = DbUtils.getCartItems(copy);
+        String name = DbUtils.getItemName(copy, 1);
+
+        try (DbSnapshot snapshot = DbSnapshot.take(copy)) {
+            // 1. Whole-database restore brings back every table
+            CartFixture.of(2, 5).applyViaDb(copy);
+            DbUtils.executeQuery(copy, "UPDATE items SET name = ? WHERE id = ?", "Renamed", 1);
+            snapshot.restore(copy);
+            assertEquals(cart, DbUtils.getCartItems(copy));
+            assertEquals(name, DbUtils.getItemName(copy, 1));
+
+            // 2. Table-level restore brings back only the selected table
+            CartFixture.of(2, 5).applyViaDb(copy);
+            DbUtils.executeQuery(copy, "UPDATE items SET name = ? WHERE id = ?", "Renamed", 1);
+            snapshot.restore(copy, CartTable.TABLE);
+            assertEquals(cart, DbUtils.getCartItems(copy));
+            assertEquals("Renamed", DbUtils.getItemName(copy, 1));
+
+            // 3. An unknown table is rejected before anything is touched
+            assertThrows(IllegalArgumentException.class, () -> snapshot.restore(copy, "no_such_table"));
+
+            // 4. A corrupt snapshot fails the integrity check after the restore
+            corruptSecondPage(snapshot.file());
+            SQLException corrupt = assertThrows(SQLException.class, () -> snapshot.restore(copy));
+            assertTrue(corrupt.getMessage().contains("Integrity check failed"), corrupt.getMessage());
+
+            // 5. A missing snapshot file fails the restore
+            Files.delete(snapshot.file());
+            assertThrows(SQLException.class, () -> snapshot.restore(copy));
+            System.out.println("✅ Snapshot restore, table restore and integrity check verified");
+        } finally {
+            DbUtils.closeConnections(copy);
+        }
+    }
+
+    @Test
+    public void testReplicaRefreshesAndRejectsWrites(@TempDir Path dir) throws Exception {
+        String copy = privateCopy(dir);
+        System.setProperty("db.replica", "true");
+        try {
+            // 1. First read copies the source into the replica
+            CartFixture.empty().applyViaDb(copy);
+            assertEquals(0, DbUtils.getCartQuantity(copy, 1));
+
+            // 2. A write to the source bumps data_version: the next read refreshes and sees it
+            CartFixture.of(1, 4).applyViaDb(copy);
+            assertEquals(4, DbUtils.getCartQuantity(copy, 1));
+
+            // 3. A write through the replica is rejected and changes nothing
+            assertThrows(SQLException.class, () -> DbUtils.fetchInt(copy,
+                "INSERT INTO cart (item_id, quantity) VALUES (2, 1) RETURNING quantity"));
+            assertEquals(0, DbUtils.getCartQuantity(copy, 2));
+            System.out.println("✅ Replica refresh and read-only replica connections verified");
+        } finally {
+            System.clearProperty("db.replica");
+            DbUtils.closeConnections(copy);
+        }
+    }
+
+    @Test
+    public void testReadProfileIsReadOnly(@TempDir Path dir) throws Exception {
+        String copy = privateCopy(dir);
+        try {
+            // 1. Reads run on connections with the configured READ profile
+            assertEquals(TestConfig.getBoolean("db.queryOnly", true) ? 1 : 0, DbUtils.fetchInt(copy, "PRAGMA query_only"));
+            assertEquals(TestConfig.getInt("db.busyTimeoutMillis", 5000), DbUtils.fetchInt(copy, "PRAGMA busy_timeout"));
+            assertEquals(Long.parseLong(TestConfig.get("db.mmapSize", "67108864")),
+                Long.parseLong(DbUtils.fetchString(copy, "PRAGMA mmap_size")));
+
+            // 2. A write on a read connection is rejected and changes nothing
+            SQLException write = assertThrows(SQLException.class, () -> DbUtils.fetchInt(copy,
+                "INSERT INTO cart (item_id, quantity) VALUES (3, 1) RETURNING quantity"));
+            assertTrue(write.getMessage().contains("SQLITE_READONLY"), write.getMessage());
+            assertEquals(0, DbUtils.getCartQuantity(copy, 3));
+
+            // 3. The write profile still writes
+            DbUtils.executeQuery(copy, "INSERT INTO cart (item_id, quantity) VALUES (3, 1)");
+            assertEquals(1, DbUtils.getCartQuantity(copy, 3));
+            System.out.println("✅ READ profile: query_only, busy_timeout, mmap_size applied; writes rejected");
+        } finally {
+            DbUtils.closeConnections(copy);
+        }
+    }
+
+    /**
+     * Overwrite the database file's second page (the first table's b-tree) with garbage.
+     */
+    private static void corruptSecondPage(Path file) throws Exception {
+        byte[] bytes = Files.readAllBytes(file);
+        int pageSize = ((bytes[16] & 0xFF) << 8) | (bytes[17] & 0xFF);
+        pageSize = pageSize == 1 ? 65536 : pageSize;
+        Arrays.fill(bytes, pageSize, Math.min(bytes.length, 2 * pageSize), (byte) 0xFF);
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Copy the test's database into a temp dir, so a test can change settings or data freely.
+     */
+    private String privateCopy(Path dir) throws Exception {
+        Path copy = dir.resolve("shop.db");
+        Files.copy(Path.of(dbPath), copy);
+        return copy.toString();
     }
 }
@@ -1,13 +1,19 @@
 package automation.pages;
 
+import automation.utils.AdaptiveWait;
+import automation.utils.DomWait;
+import automation.utils.PageReadiness;
+import automation.utils.WaitPolicy;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.Select;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Page Object Model for the shopping cart page.
@@ -18,16 +24,21 @@ public class CartPage {
     
     private final WebDriver driver;
     private final String baseUrl;
-    private final WebDriverWait wait;
+    private final AdaptiveWait wait;
+
+    /** Parsed cart table; re-extracted only after the table mutates (see {@link #rows()}). */
+    private Map<Integer, CartRow> rows = Map.of();
+    private String tableId;
+    private long tableVersion = -1;
 
     // ========================================================================
     // LOCATORS
     // ========================================================================
 
     /**
-     * Cart table: table element
+     * Cart table: table element (readiness marker for the cart page)
      */
-    private static final By CART_TABLE = By.tagName("table");
+    private static final String CART_TABLE_CSS = "table";
 
     /**
      * Table rows: tbody > tr
@@ -35,24 +46,51 @@ public class CartPage {
     private static final By CART_ITEMS = By.cssSelector("tbody > tr");
 
     /**
-     * Product name cell (first td in a row): tr > td:nth-child(1)
-     */
-    private static final By PRODUCT_NAME_CELL = By.cssSelector("td:nth-child(1)");
-
-    /**
-     * Quantity cell (second td in a row): tr > td:nth-child(2)
-     */
-    private static final By QUANTITY_CELL = By.cssSelector("td:nth-child(2)");
-
-    /**
-     * Price cell (third td in a row): tr > td:nth-child(3)
+     * Extracts the whole cart table in one executeScript call.
+     * Cells by position: 1 = product name, 2 = quantity (select), then either
+     * 3 = line price, or 3 = unit price and 4 = line price. The item id comes
+     * from the select's data-item-id attribute.
+     * 
+     * On first use it tags the table with an id and a version counter that a
+     * MutationObserver (and change events on the selects) bump. If the caller
+     * already holds that id and version, the script returns {unchanged: true}
+     * without walking the rows.
+     * Arguments: table CSS, known table id, known version.
      */
-    private static final By PRICE_CELL = By.cssSelector("td:nth-child(3)");
+    private static final String TABLE_SCRIPT = String.join("\n",
+        "var table = document.querySelector(arguments[0]);",
+        "if (!table) { return null; }",
+        "var model = table.__cartModel;",
+        "if (!model) {",
+        "  model = table.__cartModel = { id: Math.random().toString(36).slice(2), version: 0 };",
+        "  var bump = function () { model.version++; };",
+        "  new MutationObserver(bump).observe(table, { subtree: true, childList: true, attributes: true, characterData: true });",
+        "  table.addEventListener('change', bump, true);",
+        "}",
+        "if (model.id === arguments[1] && model.version === arguments[2]) {",
+        "  return { unchanged: true };",
+        "}",
+        "var rows = [];",
+        "Array.prototype.forEach.call(table.querySelectorAll('tbody > tr'), function (tr) {",
+        "  var cells = tr.cells;",
+        "  var select = tr.querySelector('select');",
+        "  rows.push({",
+        "    itemId: select ? select.getAttribute('data-item-id') : null,",
+        "    name: cells.length > 0 ? cells[0].innerText.trim() : '',",
+        "    quantity: select ? select.value : (cells.length > 1 ? cells[1].innerText.trim() : ''),",
+        "    unitPrice: cells.length > 3 ? cells[2].innerText.trim() : null,",
+        "    linePrice: cells.length > 3 ? cells[3].innerText.trim() : (cells.length > 2 ? cells[2].innerText.trim() : ''),",
+        "    select: select",
+        "  });",
+        "});",
+        "return { id: model.id, version: model.version, rows: rows };"
+    );
 
     /**
      * Total price display: h2 (contains "Total Price: $X.XX")
      */
-    private static final By TOTAL_PRICE_HEADING = By.cssSelector("h2");
+    private static final String TOTAL_PRICE_HEADING_CSS = "h2";
+    private static final By TOTAL_PRICE_HEADING = By.cssSelector(TOTAL_PRICE_HEADING_CSS);
 
     /**
      * Checkout button: button#checkout-button
@@ -77,22 +115,120 @@ public class CartPage {
     public CartPage(WebDriver driver, String baseUrl) {
         this.driver = driver;
         this.baseUrl = baseUrl;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        this.wait = WaitPolicy.explicitWait(driver);
         
         // Verify we're on the cart page
         waitForCartPageLoad();
     }
 
     /**
-     * Wait for the cart page to fully load.
+     * Wait for the cart page to fully load (network idle + cart table rendered).
+     * 
+     * @throws AssertionError If the page does not become ready.
      */
     private void waitForCartPageLoad() {
+        PageReadiness.await(driver, CART_TABLE_CSS);
+        System.out.println("✅ Cart page loaded");
+    }
+
+    // ========================================================================
+    // CART TABLE MODEL
+    // ========================================================================
+
+    /**
+     * Get the cart table as a map of item id to row, in table order.
+     * Keyed by id, not name, so two lines with the same product name stay separate.
+     * A row without a data-item-id gets a negative placeholder key (-1, -2, ...).
+     * 
+     * One round-trip per call. The rows are only re-parsed (and re-sent) when the
+     * table has mutated since the last call; otherwise the cached model is returned.
+     * 
+     * @return An unmodifiable map of item id to {@link CartRow}.
+     */
+    public Map<Integer, CartRow> rows() {
+        Object result = ((JavascriptExecutor) driver)
+            .executeScript(TABLE_SCRIPT, CART_TABLE_CSS, tableId, tableVersion);
+        if (!(result instanceof Map<?, ?> map)) {
+            // Table gone (e.g., page navigated away)
+            tableId = null;
+            tableVersion = -1;
+            rows = Map.of();
+        } else if (!Boolean.TRUE.equals(map.get("unchanged"))) {
+            tableId = String.valueOf(map.get("id"));
+            tableVersion = ((Number) map.get("version")).longValue();
+            Map<Integer, CartRow> parsed = new LinkedHashMap<>();
+            int unkeyed = 0;
+            for (Object entry : (List<?>) map.get("rows")) {
+                CartRow row = toCartRow((Map<?, ?>) entry);
+                parsed.put(row.itemId() >= 0 ? row.itemId() : --unkeyed, row);
+            }
+            rows = Collections.unmodifiableMap(parsed);
+        }
+        return rows;
+    }
+
+    /**
+     * Find the row for a product (exact name first, then "name contains").
+     * Waits adaptively for the row to appear; unchanged polls are cheap.
+     * 
+     * @param productName The name of the product.
+     * @return The row.
+     * @throws org.openqa.selenium.TimeoutException If no such row appears.
+     */
+    private CartRow findRow(String productName) {
+        return wait.until("cart row", d -> {
+            Map<Integer, CartRow> current = rows();
+            CartRow row = rowNamed(current, productName);
+            if (row != null) {
+                return row;
+            }
+            return current.values().stream()
+                .filter(candidate -> candidate.name().contains(productName))
+                .findFirst()
+                .orElse(null);
+        });
+    }
+
+    /**
+     * First row whose name equals the product name, or null.
+     */
+    private static CartRow rowNamed(Map<Integer, CartRow> current, String productName) {
+        return current.values().stream()
+            .filter(row -> row.name().equals(productName))
+            .findFirst()
+            .orElse(null);
+    }
+
+    private static CartRow toCartRow(Map<?, ?> raw) {
+        int itemId;
         try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(CART_TABLE));
-            System.out.println("✅ Cart page loaded");
-        } catch (Exception e) {
-            System.err.println("⚠️ Cart page load timed out: " + e.getMessage());
+            itemId = raw.get("itemId") != null ? Integer.parseInt(String.valueOf(raw.get("itemId")).strip()) : -1;
+        } catch (NumberFormatException e) {
+            itemId = -1;
+        }
+        int quantity;
+        try {
+            quantity = Integer.parseInt(String.valueOf(raw.get("quantity")).strip());
+        } catch (NumberFormatException e) {
+            quantity = -1;
         }
+        double linePrice = parsePrice(raw.get("linePrice"));
+        double unitPrice = raw.get("unitPrice") != null
+            ? parsePrice(raw.get("unitPrice"))
+            : quantity > 0 ? linePrice / quantity : Double.NaN;
+        return new CartRow(
+            itemId,
+            String.valueOf(raw.get("name")),
+            quantity,
+            unitPrice,
+            linePrice,
+            (WebElement) raw.get("select")
+        );
+    }
+
+    private static double parsePrice(Object text) {
+        String value = String.valueOf(text).replaceAll("[^0-9.]", "");
+        return value.isEmpty() ? Double.NaN : Double.parseDouble(value);
     }
 
     // ========================================================================
@@ -101,6 +237,7 @@ public class CartPage {
 
     /**
      * Get all items currently in the cart.
+     * Returns immediately (no implicit wait), so an empty cart costs one round-trip.
      * 
      * @return A list of rows (WebElements) from the cart table.
      */
@@ -121,9 +258,7 @@ public class CartPage {
      */
     public void assertProductInCart(String productName) {
         try {
-            WebElement row = driver.findElement(
-                By.xpath("//tr[contains(., '" + productName + "')]")
-            );
+            findRow(productName);
             System.out.println("✅ Product '" + productName + "' found in cart");
         } catch (Exception e) {
             throw new AssertionError(
@@ -140,28 +275,12 @@ public class CartPage {
      */
     public int getProductQuantity(String productName) {
         try {
-        // 1. Find the row for the product
-        WebElement row = driver.findElement(
-            By.xpath("//tr[td[1][contains(text(), '" + productName + "')]]")
-        );
-        
-        // 2. Find the Dropdown inside the quantity cell
-        WebElement quantityCell = row.findElement(QUANTITY_CELL);
-        WebElement dropdown = quantityCell.findElement(By.tagName("select"));
-        
-        // 3. Read the currently selected option
-        Select select = new Select(dropdown);
-        String selectedText = select.getFirstSelectedOption().getText().strip();
-        
-        // 4. Parse it into a variable (Cleaner & better for debugging)
-        int quantity = Integer.parseInt(selectedText);
-        
-        System.out.println("📦 Quantity for '" + productName + "': " + quantity);
-        return quantity;
-        
-    } catch (Exception e) {
-        System.err.println("⚠️ Failed to get quantity for '" + productName + "': " + e.getMessage());
-        return -1;
+            int quantity = findRow(productName).quantity();
+            System.out.println("📦 Quantity for '" + productName + "': " + quantity);
+            return quantity;
+        } catch (Exception e) {
+            System.err.println("⚠️ Failed to get quantity for '" + productName + "': " + e.getMessage());
+            return -1;
         }
     }
 
@@ -183,6 +302,33 @@ public class CartPage {
         System.out.println("✅ Product quantity assertion passed: '" + productName + "' = " + expectedQuantity);
     }
 
+    /**
+     * Assert the quantities of several products at once.
+     * One round-trip for the whole table, however many rows the cart has.
+     * Products not listed in {@code expected} are ignored. If several cart lines
+     * share a product name, their quantities are summed.
+     * 
+     * @param expected Product name to expected quantity.
+     * @throws AssertionError Listing every product whose quantity does not match.
+     */
+    public void assertCartContents(Map<String, Integer> expected) {
+        Map<String, Integer> actual = new LinkedHashMap<>();
+        rows().values().forEach(row -> actual.merge(row.name(), row.quantity(), Integer::sum));
+        List<String> mismatches = new ArrayList<>();
+        expected.forEach((name, quantity) -> {
+            Integer found = actual.get(name);
+            if (found == null) {
+                mismatches.add("'" + name + "' missing (expected " + quantity + ")");
+            } else if (found.intValue() != quantity) {
+                mismatches.add("'" + name + "' expected " + quantity + ", actual " + found);
+            }
+        });
+        if (!mismatches.isEmpty()) {
+            throw new AssertionError("Cart contents mismatch: " + String.join("; ", mismatches));
+        }
+        System.out.println("✅ Cart contents assertion passed: " + expected);
+    }
+
     /**
      * Get the total price displayed on the cart page.
      * Parses the text "Total Price: $XX.XX"
@@ -191,10 +337,7 @@ public class CartPage {
      */
     public double getTotalPrice() {
         try {
-            WebElement totalHeading = wait.until(
-                ExpectedConditions.presenceOfElementLocated(TOTAL_PRICE_HEADING)
-            );
-            String totalText = totalHeading.getText(); // e.g., "Total Price: $45.99"
+            String totalText = StaleRetry.apply(wait, TOTAL_PRICE_HEADING, WebElement::getText); // e.g., "Total Price: $45.99"
             
             // Extract numeric value
             String priceValue = totalText.replaceAll("[^0-9.]", "");
@@ -209,14 +352,10 @@ public class CartPage {
 
     /**
      * Assert that the cart is empty (no items displayed).
+     * Uses the fast absence check: one round-trip, no timeout to sit out.
      */
     public void assertCartEmpty() {
-        List<WebElement> items = getCartItems();
-        if (!items.isEmpty()) {
-            throw new AssertionError(
-                "Expected empty cart, but found " + items.size() + " items"
-            );
-        }
+        WaitPolicy.assertAbsent(driver, CART_ITEMS, "cart items");
         System.out.println("✅ Cart is empty");
     }
 
@@ -231,10 +370,7 @@ public class CartPage {
      */
     public CheckoutPage clickCheckout() {
         try {
-            WebElement checkoutBtn = wait.until(
-                ExpectedConditions.elementToBeClickable(CHECKOUT_BUTTON)
-            );
-            checkoutBtn.click();
+            StaleRetry.click(wait, CHECKOUT_BUTTON);
             System.out.println("✅ Clicked Checkout button");
             return new CheckoutPage(driver, baseUrl);
         } catch (Exception e) {
@@ -249,10 +385,7 @@ public class CartPage {
      */
     public HomePage clickBackToShop() {
         try {
-            WebElement shopLink = wait.until(
-                ExpectedConditions.elementToBeClickable(SHOP_LINK)
-            );
-            shopLink.click();
+            StaleRetry.click(wait, SHOP_LINK);
             System.out.println("✅ Clicked Back to Shop link");
             return new HomePage(driver, baseUrl);
         } catch (Exception e) {
@@ -269,28 +402,26 @@ public class CartPage {
      */
     public void setProductQuantity(String productName, int newQuantity) {
         try {
-            // 1. Get current price so we can wait for it to change
-            double oldPrice = getTotalPrice();
+            // 1. Get current total text so we can wait for it to change
+            String oldTotalText = StaleRetry.apply(wait, TOTAL_PRICE_HEADING, WebElement::getText);
             
-            // 2. Find the row and the dropdown
-            // (Using the safer XPath to ensure we get the specific product's row)
-            WebElement row = driver.findElement(
-                By.xpath("//tr[td[1][contains(text(), '" + productName + "')]]")
-            );
-            WebElement dropdown = row.findElement(QUANTITY_CELL).findElement(By.tagName("select"));
+            // 2. Get the row's dropdown from the parsed table model
+            WebElement dropdown = findRow(productName).quantitySelect();
+            if (dropdown == null) {
+                throw new IllegalStateException("Row has no quantity dropdown");
+            }
             
             // 3. Change the selection
             Select select = new Select(dropdown);
             select.selectByVisibleText(String.valueOf(newQuantity));
             
             // 4. Wait for the price to update
-            // We wait until the H2 text NO LONGER matches the old price.
-            // This confirms the app processed the change.
-            wait.until(ExpectedConditions.not(
-                ExpectedConditions.textToBePresentInElementLocated(
-                    TOTAL_PRICE_HEADING, String.valueOf(oldPrice)
-                )
-            ));
+            // We wait until the H2 text NO LONGER matches the old total.
+            // This confirms the app processed the change. A MutationObserver
+            // resolves the wait in-page, so this is one round-trip, not a polling loop.
+            DomWait.untilTextChanges(
+                driver, TOTAL_PRICE_HEADING_CSS, oldTotalText, WaitPolicy.DEFAULT_TIMEOUT
+            );
             
             System.out.println("✅ Updated quantity for '" + productName + "' to " + newQuantity);
             
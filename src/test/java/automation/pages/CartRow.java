@@ -0,0 +1,19 @@
+package automation.pages;
+
+import org.openqa.selenium.WebElement;
+
+/**
+ * One row of the cart table, as parsed by {@link CartPage#rows()}.
+ *
+ * The page shows a line price per row. If it also shows a unit price column,
+ * that is used; otherwise the unit price is derived as line price / quantity.
+ *
+ * @param itemId The item id from the quantity dropdown's data-item-id, or -1 if the row has none.
+ * @param name The product name (first cell).
+ * @param quantity The selected quantity.
+ * @param unitPrice Price of one item, or NaN if it cannot be determined (e.g., quantity 0).
+ * @param linePrice Price of the row (unit price x quantity).
+ * @param quantitySelect Handle to the row's quantity dropdown; valid until the table mutates.
+ */
+public record CartRow(int itemId, String name, int quantity, double unitPrice, double linePrice, WebElement quantitySelect) {
+}
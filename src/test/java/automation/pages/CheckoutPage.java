@@ -1,11 +1,12 @@
 package automation.pages;
 
+import automation.utils.AdaptiveWait;
+import automation.utils.PageReadiness;
+import automation.utils.WaitPolicy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import java.time.Duration;
 
 /**
  * Page Object Model for the checkout page.
@@ -16,7 +17,7 @@ public class CheckoutPage {
     
     private final WebDriver driver;
     private final String baseUrl;
-    private final WebDriverWait wait;
+    private final AdaptiveWait wait;
 
     // ========================================================================
     // LOCATORS
@@ -33,9 +34,9 @@ public class CheckoutPage {
     private static final By THANK_YOU_MESSAGE = By.cssSelector(".thank-you-message, [class*='thank']");
 
     /**
-     * Checkout container div
+     * Checkout container div (readiness marker for the checkout page)
      */
-    private static final By CHECKOUT_CONTAINER = By.className("checkout-container");
+    private static final String CHECKOUT_CONTAINER_CSS = ".checkout-container";
 
     // ========================================================================
     // CONSTRUCTOR
@@ -50,22 +51,20 @@ public class CheckoutPage {
     public CheckoutPage(WebDriver driver, String baseUrl) {
         this.driver = driver;
         this.baseUrl = baseUrl;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        this.wait = WaitPolicy.explicitWait(driver);
         
         // Verify we're on the checkout page
         waitForCheckoutPageLoad();
     }
 
     /**
-     * Wait for the checkout page to fully load.
+     * Wait for the checkout page to fully load (network idle + checkout container rendered).
+     * 
+     * @throws AssertionError If the page does not become ready.
      */
     private void waitForCheckoutPageLoad() {
-        try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(CHECKOUT_CONTAINER));
-            System.out.println("✅ Checkout page loaded");
-        } catch (Exception e) {
-            System.err.println("⚠️ Checkout page load timed out: " + e.getMessage());
-        }
+        PageReadiness.await(driver, CHECKOUT_CONTAINER_CSS);
+        System.out.println("✅ Checkout page loaded");
     }
 
     // ========================================================================
@@ -1,11 +1,19 @@
 package automation.pages;
 
+import automation.utils.AdaptiveWait;
+import automation.utils.DomWait;
+import automation.utils.PageReadiness;
+import automation.utils.WaitPolicy;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Page Object Model for the home page (AI Animal Art store).
@@ -17,7 +25,7 @@ public class HomePage {
     
     private final WebDriver driver;
     private final String baseUrl;
-    private final WebDriverWait wait;
+    private final AdaptiveWait wait;
 
     // ========================================================================
     // LOCATORS (converted from Playwright selectors to Selenium By)
@@ -26,8 +34,9 @@ public class HomePage {
     /**
      * Cart count badge in header: #cart-link span
      * Equivalent: page.locator("#cart-link span")
+     * Read by the snapshot and cart count scripts.
      */
-    private static final By CART_COUNT_BADGE = By.cssSelector("#cart-link span");
+    private static final String CART_COUNT_BADGE_CSS = "#cart-link span";
 
     /**
      * Cart link in header: a#cart-link
@@ -38,14 +47,16 @@ public class HomePage {
     /**
      * Product list: ul > li
      * Each <li> contains an image, name, price, and form with "Add to Cart" button.
+     * Also the readiness marker for the home page.
      */
-    private static final By PRODUCT_LIST = By.cssSelector("ul > li");
+    private static final String PRODUCT_LIST_CSS = "ul > li";
 
     /**
      * Success notification: div.notification
      * Appears when an item is added to cart.
+     * Kept as CSS so DomWait can observe it in-page.
      */
-    private static final By SUCCESS_NOTIFICATION = By.className("notification");
+    private static final String SUCCESS_NOTIFICATION_CSS = ".notification";
 
     /**
      * Add-to-cart button for a specific item (by itemId).
@@ -57,19 +68,88 @@ public class HomePage {
     private static final String ADD_TO_CART_FORM_TEMPLATE = "//form[.//input[@name='itemId' and @value='%d']]";
 
     /**
-     * Generic "Add to Cart" button within a form.
+     * The "Add to Cart" (submit) button inside that form.
+     * One locator, so a stale button can be re-resolved as a unit.
      */
-    private static final By ADD_TO_CART_BUTTON = By.cssSelector("button[type=\"submit\"]");
+    private static final String ADD_TO_CART_BUTTON_TEMPLATE = ADD_TO_CART_FORM_TEMPLATE + "//button[@type='submit']";
 
     /**
-     * Product name heading within a <li>: li h2
+     * Product image: li img
      */
-    private static final By PRODUCT_NAME_HEADING = By.cssSelector("h2");
+    private static final By PRODUCT_IMAGE = By.cssSelector("img");
 
     /**
-     * Product image: li img
+     * Posts the add-to-cart forms' data with fetch in one executeAsyncScript call (see {@link #addToCart(Map)}).
+     * This bypasses the UI: no button is clicked, so its disabled state, click handlers and
+     * the success notification are not exercised. Each form is posted using its own action,
+     * method and fields as one strictly sequential promise chain (one request at a time,
+     * so the server never sees two updates of the same cart row at once). The saving is
+     * in WebDriver round-trips and page loads, not in request concurrency.
+     * Redirects are not followed: the page is reloaded once at the end instead.
+     * Arguments: [[itemId, count], ...], callback. Resolves with a list of failure messages.
      */
-    private static final By PRODUCT_IMAGE = By.cssSelector("img");
+    private static final String BATCH_ADD_SCRIPT = String.join("\n",
+        "var batch = arguments[0];",
+        "var done = arguments[arguments.length - 1];",
+        "var failures = [];",
+        "function formFor(itemId) {",
+        "  return Array.prototype.find.call(document.querySelectorAll('form'), function (form) {",
+        "    var input = form.querySelector('input[name=\"itemId\"]');",
+        "    return input && input.value === String(itemId);",
+        "  });",
+        "}",
+        "function submit(form) {",
+        "  return fetch(form.action, {",
+        "    method: (form.getAttribute('method') || 'POST').toUpperCase(),",
+        "    body: new URLSearchParams(new FormData(form)),",
+        "    redirect: 'manual',",
+        "    credentials: 'same-origin'",
+        "  }).then(function (response) {",
+        "    return response.type === 'opaqueredirect' || response.ok ? null : 'HTTP ' + response.status;",
+        "  }, function (error) { return String(error); });",
+        "}",
+        "var chain = Promise.resolve();",
+        "batch.forEach(function (pair) {",
+        "  var form = formFor(pair[0]);",
+        "  for (var i = 0; i < pair[1]; i++) {",
+        "    chain = chain",
+        "      .then(function () { return form ? submit(form) : 'no add-to-cart form'; })",
+        "      .then(function (error) { if (error) { failures.push('item ' + pair[0] + ': ' + error); } });",
+        "  }",
+        "});",
+        "chain.then(function () { done(failures); });"
+    );
+
+    /**
+     * Collects the whole page in one executeScript call (see {@link #snapshot()}).
+     * Arguments: product list CSS, cart badge CSS.
+     * Returns null until the document is complete and the badge has rendered.
+     */
+    private static final String SNAPSHOT_SCRIPT = String.join("\n",
+        "var badge = document.querySelector(arguments[1]);",
+        "if (document.readyState !== 'complete' || !badge) { return null; }",
+        "var products = [];",
+        "document.querySelectorAll(arguments[0]).forEach(function (li) {",
+        "  var input = li.querySelector('form input[name=\"itemId\"]');",
+        "  var heading = li.querySelector('h2');",
+        "  var button = li.querySelector('form button[type=\"submit\"]');",
+        "  products.push({",
+        "    itemId: input ? input.value : null,",
+        "    name: heading ? heading.innerText : '',",
+        "    enabled: !!button && !button.disabled",
+        "  });",
+        "});",
+        "return { cartCount: badge.innerText, products: products };"
+    );
+
+    /**
+     * Reads just the cart badge text (see {@link #assertCartCount(int)}).
+     * Arguments: cart badge CSS. Returns null until the document is complete and the badge has rendered.
+     */
+    private static final String CART_COUNT_SCRIPT = String.join("\n",
+        "var badge = document.querySelector(arguments[0]);",
+        "return document.readyState === 'complete' && badge ? badge.innerText : null;"
+    );
 
     // ========================================================================
     // CONSTRUCTOR
@@ -84,8 +164,8 @@ public class HomePage {
     public HomePage(WebDriver driver, String baseUrl) {
         this.driver = driver;
         this.baseUrl = baseUrl;
-        // Initialize WebDriverWait with 10-second timeout for explicit waits
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        // Explicit waits only; implicit waits are disabled (see WaitPolicy)
+        this.wait = WaitPolicy.explicitWait(driver);
     }
 
     // ========================================================================
@@ -93,27 +173,34 @@ public class HomePage {
     // ========================================================================
 
     /**
-     * Navigate to the home page and wait for DOM readiness.
+     * Navigate to the home page and wait until it is ready.
      * 
      * Equivalent to Python's go_home(page, base_url).
+     * Ready means network idle (via CDP) plus a rendered product list.
+     * 
+     * @throws AssertionError If the page does not become ready.
      */
     public void open() {
-        driver.get(baseUrl);
-        waitForPageLoad();
+        PageReadiness.navigate(driver, baseUrl, PRODUCT_LIST_CSS);
         System.out.println("✅ Homepage opened: " + baseUrl);
     }
 
+    // ========================================================================
+    // SNAPSHOT
+    // ========================================================================
+
     /**
-     * Wait for the page to fully load (DOM content loaded).
-     * Checks for the product list to be present and visible.
+     * Read the whole page (products, names, button states, cart count) in one round-trip.
+     * 
+     * Twenty facts about the catalog cost one WebDriver command instead of one
+     * findElement each. Waits (adaptively) only if the page has not rendered yet.
+     * 
+     * @return An immutable view of the page at this moment.
      */
-    private void waitForPageLoad() {
-        try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(PRODUCT_LIST));
-            wait.until(ExpectedConditions.visibilityOfElementLocated(PRODUCT_LIST));
-        } catch (Exception e) {
-            System.err.println("⚠️ Page load wait timed out. Continuing anyway.");
-        }
+    public HomePageSnapshot snapshot() {
+        Map<?, ?> result = wait.until("home page snapshot", d -> (Map<?, ?>) ((JavascriptExecutor) d)
+            .executeScript(SNAPSHOT_SCRIPT, PRODUCT_LIST_CSS, CART_COUNT_BADGE_CSS));
+        return HomePageSnapshot.fromScriptResult(result);
     }
 
     // ========================================================================
@@ -130,11 +217,7 @@ public class HomePage {
      */
     public int getCartCount() {
         try {
-            WebElement cartBadge = wait.until(
-                ExpectedConditions.presenceOfElementLocated(CART_COUNT_BADGE)
-            );
-            String countText = cartBadge.getText().strip();
-            int count = Integer.parseInt(countText);
+            int count = snapshot().cartCount();
             System.out.println("🛒 Cart count: " + count);
             return count;
         } catch (Exception e) {
@@ -147,15 +230,30 @@ public class HomePage {
      * Assert that the cart count matches the expected value.
      * 
      * Equivalent to Python's expect_cart_count(page, expected).
+     * Like Playwright's expect(), re-reads the badge until the count matches
+     * (e.g., while the post-add redirect is still loading) or the wait times out.
+     * Each poll is one script call with no wait of its own, so a missing badge
+     * fails after one timeout, reporting the last value seen.
      * 
      * @param expected The expected cart count.
      * @throws AssertionError If the actual count does not match expected.
      */
     public void assertCartCount(int expected) {
-        int actual = getCartCount();
-        if (actual != expected) {
+        String[] lastSeen = {null};
+        try {
+            wait.until("cart count", d -> {
+                Object text = ((JavascriptExecutor) d).executeScript(CART_COUNT_SCRIPT, CART_COUNT_BADGE_CSS);
+                if (text == null) {
+                    return null;
+                }
+                lastSeen[0] = String.valueOf(text).strip();
+                boolean matches = lastSeen[0].matches("\\d+") && Integer.parseInt(lastSeen[0]) == expected;
+                return matches ? Boolean.TRUE : null;
+            });
+        } catch (TimeoutException e) {
             throw new AssertionError(
-                "Cart count mismatch. Expected: " + expected + ", Actual: " + actual
+                "Cart count mismatch. Expected: " + expected + ", Actual: "
+                    + (lastSeen[0] == null ? "no cart badge" : lastSeen[0])
             );
         }
         System.out.println("✅ Cart count assertion passed: " + expected);
@@ -167,10 +265,7 @@ public class HomePage {
      * @return A CartPage instance for continued interaction.
      */
     public CartPage goToCart() {
-        WebElement cartLink = wait.until(
-            ExpectedConditions.elementToBeClickable(CART_LINK)
-        );
-        cartLink.click();
+        StaleRetry.click(wait, CART_LINK);
         System.out.println("✅ Navigated to cart page");
         return new CartPage(driver, baseUrl);
     }
@@ -186,24 +281,24 @@ public class HomePage {
      *   item_form = page.locator('form:has(input[name="itemId"][value="<itemId>"])')
      *   item_form.get_by_role("button").click()
      * 
+     * The button is looked up fresh right before the click. A reference that goes
+     * stale between lookup and click is re-resolved and clicked once more (see
+     * StaleRetry). That does not replace waiting for the success notification to
+     * disappear between repeated adds: the notification's layout shift can still
+     * move the button while the click is in flight (see assertSuccessNotificationHidden()).
+     * 
      * @param itemId The ID of the item to add to cart.
-     * @throws Exception If the form or button is not found.
+     * @throws AssertionError If the form or button is not found.
      */
     public void addToCartByItemId(int itemId) {
         try {
-            // Build a locator for the specific form using XPath (Selenium does not reliably support CSS :has)
-            // Logic: Find a form that contains an input with the specific value
-            By formLocator = By.xpath(
-                String.format(ADD_TO_CART_FORM_TEMPLATE, itemId)
-            );
-            
-            WebElement form = wait.until(
-                ExpectedConditions.presenceOfElementLocated(formLocator)
+            // Build a locator for the button of the specific form using XPath (Selenium does not reliably support CSS :has)
+            // Logic: Find a form that contains an input with the specific value, then its submit button
+            By buttonLocator = By.xpath(
+                String.format(ADD_TO_CART_BUTTON_TEMPLATE, itemId)
             );
             
-            // Find and click the submit button within this form
-            WebElement addButton = form.findElement(ADD_TO_CART_BUTTON);
-            wait.until(ExpectedConditions.elementToBeClickable(addButton)).click();
+            StaleRetry.click(wait, buttonLocator);
             
             System.out.println("✅ Clicked 'Add to Cart' for item " + itemId);
         } catch (Exception e) {
@@ -221,30 +316,71 @@ public class HomePage {
         addToCartByItemId(1);
     }
 
+    /**
+     * Add several items (each possibly several times) in one WebDriver call.
+     * 
+     * Setup helper, not a UI interaction: the add-to-cart forms' data is posted
+     * from inside the browser with fetch, one request after another, without
+     * clicking any button (see BATCH_ADD_SCRIPT). The page is then reloaded once
+     * and completion is confirmed by a single check: the cart badge reaching its
+     * previous value plus the number of adds. A 10-item cart costs one page
+     * settle instead of ten click/notification cycles.
+     * 
+     * No notification is shown and no button state is checked for batched adds;
+     * use {@link #addToCartByItemId(int)} when the click itself is under test.
+     * 
+     * @param countsByItemId Item ID to number of times to add it, in submission order
+     *                       (use a LinkedHashMap when the order matters).
+     * @throws IllegalArgumentException If a count is zero or negative.
+     * @throws AssertionError If an item is not on the page, an add is rejected,
+     *                        or the badge does not reach the expected total.
+     */
+    public void addToCart(Map<Integer, Integer> countsByItemId) {
+        countsByItemId.forEach((itemId, count) -> {
+            if (count == null || count <= 0) {
+                throw new IllegalArgumentException("Add count for item " + itemId + " must be positive: " + count);
+            }
+        });
+        HomePageSnapshot before = snapshot();
+        List<List<Integer>> batch = new ArrayList<>();
+        int adds = 0;
+        for (Map.Entry<Integer, Integer> entry : countsByItemId.entrySet()) {
+            if (before.product(entry.getKey()).isEmpty()) {
+                throw new AssertionError("Failed to add item " + entry.getKey() + " to cart: not on the page");
+            }
+            batch.add(List.of(entry.getKey(), entry.getValue()));
+            adds += entry.getValue();
+        }
+
+        List<?> failures = (List<?>) ((JavascriptExecutor) driver).executeAsyncScript(BATCH_ADD_SCRIPT, batch);
+        if (!failures.isEmpty()) {
+            throw new AssertionError("Failed to add items to cart: " + failures);
+        }
+
+        // One reload, one settle, one check for the whole batch
+        PageReadiness.navigate(driver, baseUrl, PRODUCT_LIST_CSS);
+        assertCartCount(before.cartCount() + adds);
+        System.out.println("✅ Added " + adds + " item(s) to cart in one batch: " + countsByItemId);
+    }
+
     /**
      * Get the name of a product by its itemId.
      * 
-     * Locates the form for the given itemId, then finds the h2 heading 
-     * (product name) within the parent <li>.
+     * Reads the h2 heading of the <li> whose form carries the given itemId,
+     * from a single {@link #snapshot()}.
      * 
      * @param itemId The ID of the product.
      * @return The product name (e.g., "Koala", "Dog", "Cat"), or null if not found.
      */
     public String getProductNameByItemId(int itemId) {
         try {
-            // Find the form for this itemId
-            By formLocator = By.xpath(
-                String.format(ADD_TO_CART_FORM_TEMPLATE, itemId)
-            );
-            WebElement form = wait.until(
-                ExpectedConditions.presenceOfElementLocated(formLocator)
-            );
-            
-            // Navigate up to the parent <li> and find the h2
-            WebElement listItem = form.findElement(By.xpath("./ancestor::li"));
-            WebElement nameHeading = listItem.findElement(PRODUCT_NAME_HEADING);
-            
-            String productName = nameHeading.getText().strip();
+            String productName = snapshot().product(itemId)
+                .map(HomePageSnapshot.Product::name)
+                .orElse(null);
+            if (productName == null) {
+                System.err.println("⚠️ No product with item " + itemId + " on the page");
+                return null;
+            }
             System.out.println("📦 Product name for item " + itemId + ": " + productName);
             return productName;
         } catch (Exception e) {
@@ -277,13 +413,13 @@ public class HomePage {
     /**
      * Assert that the success notification is visible.
      * Notification text: "Item successfully added to cart"
+     * Event-driven (MutationObserver): resolves as soon as the notification renders.
      */
     public void assertSuccessNotificationVisible() {
         try {
-            WebElement notification = wait.until(
-                ExpectedConditions.visibilityOfElementLocated(SUCCESS_NOTIFICATION)
+            String notificationText = DomWait.untilVisible(
+                driver, SUCCESS_NOTIFICATION_CSS, WaitPolicy.DEFAULT_TIMEOUT
             );
-            String notificationText = notification.getText();
             System.out.println("✅ Success notification visible: " + notificationText);
         } catch (Exception e) {
             throw new AssertionError(
@@ -298,7 +434,7 @@ public class HomePage {
      */
     public void assertSuccessNotificationHidden() {
         try {
-            wait.until(ExpectedConditions.invisibilityOfElementLocated(SUCCESS_NOTIFICATION));
+            DomWait.untilHidden(driver, SUCCESS_NOTIFICATION_CSS, WaitPolicy.DEFAULT_TIMEOUT);
             System.out.println("✅ Success notification has disappeared");
         } catch (Exception e) {
             System.err.println("⚠️ Notification visibility check timed out (may still be visible)");
@@ -312,9 +448,9 @@ public class HomePage {
      */
     public int getProductCount() {
         try {
-            java.util.List<WebElement> products = driver.findElements(PRODUCT_LIST);
-            System.out.println("📊 Total products on page: " + products.size());
-            return products.size();
+            int count = snapshot().productCount();
+            System.out.println("📊 Total products on page: " + count);
+            return count;
         } catch (Exception e) {
             System.err.println("⚠️ Failed to count products: " + e.getMessage());
             return 0;
@@ -330,13 +466,12 @@ public class HomePage {
      */
     public boolean isAddToCartButtonDisabled(int itemId) {
         try {
-            By formLocator = By.cssSelector(
-                String.format("form:has(input[name=\"itemId\"][value=\"%d\"])", itemId)
-            );
-            WebElement form = driver.findElement(formLocator);
-            WebElement button = form.findElement(ADD_TO_CART_BUTTON);
-            
-            boolean isDisabled = !button.isEnabled();
+            HomePageSnapshot.Product product = snapshot().product(itemId).orElse(null);
+            if (product == null) {
+                System.err.println("⚠️ No product with item " + itemId + " on the page");
+                return false;
+            }
+            boolean isDisabled = !product.addToCartEnabled();
             System.out.println("🔒 Add to cart button for item " + itemId + " disabled: " + isDisabled);
             return isDisabled;
         } catch (Exception e) {
@@ -0,0 +1,75 @@
+package automation.pages;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the home page, read in a single WebDriver round-trip.
+ *
+ * Built by {@link HomePage#snapshot()} from one executeScript call that collects
+ * every product (item id, name, "Add to Cart" state) and the header cart count.
+ * Assertions read from the snapshot instead of issuing a findElement per fact,
+ * and never hit a stale element because no WebElement is held.
+ *
+ * @param cartCount The number shown in the header cart badge.
+ * @param products The products in page order.
+ */
+public record HomePageSnapshot(int cartCount, List<Product> products) {
+
+    /**
+     * One product list item.
+     *
+     * @param itemId The value of the form's hidden itemId input.
+     * @param name The product name (h2 text).
+     * @param addToCartEnabled Whether the "Add to Cart" button can be clicked.
+     */
+    public record Product(int itemId, String name, boolean addToCartEnabled) {
+    }
+
+    public HomePageSnapshot {
+        products = List.copyOf(products);
+    }
+
+    /**
+     * @param itemId The ID of the product.
+     * @return The product, or empty if it is not on the page.
+     */
+    public Optional<Product> product(int itemId) {
+        return products.stream()
+            .filter(product -> product.itemId() == itemId)
+            .findFirst();
+    }
+
+    /**
+     * @return The number of products displayed.
+     */
+    public int productCount() {
+        return products.size();
+    }
+
+    /**
+     * Convert the snapshot script's result ({cartCount, products: [{itemId, name, enabled}]}).
+     */
+    static HomePageSnapshot fromScriptResult(Map<?, ?> result) {
+        List<Product> products = new ArrayList<>();
+        for (Object entry : (List<?>) result.get("products")) {
+            Map<?, ?> product = (Map<?, ?>) entry;
+            products.add(new Product(
+                parseInt(product.get("itemId"), -1),
+                String.valueOf(product.get("name")).strip(),
+                Boolean.TRUE.equals(product.get("enabled"))
+            ));
+        }
+        return new HomePageSnapshot(parseInt(result.get("cartCount"), 0), products);
+    }
+
+    private static int parseInt(Object value, int fallback) {
+        try {
+            return Integer.parseInt(String.valueOf(value).strip());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package automation.pages;
+
+import automation.utils.AdaptiveWait;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.function.Function;
+
+/**
+ * Act on an element by locator, re-resolving it once if it goes stale.
+ *
+ * The element is looked up through the page's explicit wait right before the
+ * action. If the DOM is re-rendered between the lookup and the action (e.g., by
+ * a script), the action fails with StaleElementReferenceException; the locator
+ * is then resolved again and the action retried once. A second stale reference
+ * is rethrown.
+ *
+ * Nothing is cached: the page objects' controls either navigate (every element
+ * belongs to the old document afterwards) or are read once per call.
+ */
+final class StaleRetry {
+
+    private StaleRetry() {
+    }
+
+    /**
+     * Run an action on the element for a locator (waiting for it to be present).
+     *
+     * @param wait The page object's explicit wait.
+     * @param locator The locator.
+     * @param action What to do with the element (e.g., WebElement::getText).
+     * @return The action's result.
+     */
+    static <T> T apply(AdaptiveWait wait, By locator, Function<WebElement, T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.apply(wait.until(ExpectedConditions.presenceOfElementLocated(locator)));
+            } catch (StaleElementReferenceException e) {
+                if (attempt > 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Click the element for a locator (waiting for it to be clickable).
+     *
+     * @param wait The page object's explicit wait.
+     * @param locator The locator.
+     */
+    static void click(AdaptiveWait wait, By locator) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                wait.until(ExpectedConditions.elementToBeClickable(locator)).click();
+                return;
+            } catch (StaleElementReferenceException e) {
+                if (attempt > 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package automation.ui;
 
 import automation.BaseTest;
+import automation.LeanBrowser;
+import automation.SuppressAnimations;
+import automation.UsesCart;
 import automation.pages.CartPage;
+import automation.pages.CartRow;
 import automation.pages.CheckoutPage;
 import automation.pages.HomePage;
 import automation.utils.ApiUtils;
+import automation.utils.CartFixture;
 import automation.utils.DbUtils;
+import automation.utils.LeanMode;
 import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -58,6 +72,7 @@ public class AddToCartTest extends BaseTest {
      * This test ensures the UI correctly reflects API state changes.
      */
     @Test
+    @UsesCart
     public void testAddToCartShowsMessageAndUpdatesCount() {
         // Arrange: Reset cart via API to clean state
         ApiUtils.resetCart(baseUrl);
@@ -94,8 +109,14 @@ public class AddToCartTest extends BaseTest {
      * errors caused by the notification pushing the page down (DOM shift).
      * 
      * See HomePage.assertSuccessNotificationHidden() for details.
+     * 
+     * @SuppressAnimations keeps that wait short: the notification's fade is 
+     * zeroed and its hide timer scaled down, so each cycle settles in a fraction 
+     * of the app's own delay (see AnimationSuppression).
      */
     @Test
+    @UsesCart
+    @SuppressAnimations
     public void testAddButtonDisablesAtMaxQuantity() {
         // Arrange: Reset cart and open homepage
         ApiUtils.resetCart(baseUrl);
@@ -145,6 +166,7 @@ public class AddToCartTest extends BaseTest {
      * on the cart and checkout pages.
      */
     @Test
+    @UsesCart
     public void testE2EAddToCartAndCheckout() throws Exception {
         // Arrange: Reset cart to clean state
         ApiUtils.resetCart(baseUrl);
@@ -180,9 +202,9 @@ public class AddToCartTest extends BaseTest {
         cartPage.assertProductQuantity(productName, 1);
 
         // DATABASE VALIDATION
-        // Verify the backend (SQLite) actually recorded the item
-        int dbQuantity = DbUtils.getCartQuantity(dbPath, 1);
-        assertEquals(1, dbQuantity, "Database should show 1 item in cart");
+        // Verify the backend (SQLite) actually recorded the item.
+        // Awaits the commit instead of reading once: returns as soon as it lands.
+        DbUtils.awaitCartQuantity(dbPath, 1, 1);
 
         // Act: Proceed to checkout
         CheckoutPage checkoutPage = cartPage.clickCheckout();
@@ -193,4 +215,142 @@ public class AddToCartTest extends BaseTest {
 
         System.out.println("✅ E2E checkout test passed");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test 5: Max-Quantity Boundary from a Seeded Cart
+     * 
+     * Validates the last step before the limit without clicking there:
+     *   1. Seed the cart with 9 of item 1 via the API (one below max).
+     *   2. Open the homepage and verify the UI reflects the seeded state.
+     *   3. Add one more through the UI.
+     *   4. Verify the button is now disabled with the max-quantity message.
+     * 
+     * Only the step under test goes through the UI; the precondition is set 
+     * declaratively (see CartFixture).
+     */
+    @Test
+    @UsesCart
+    public void testSeededCartReachesMaxQuantityWithOneClick() {
+        // Arrange: Seed one below the maximum via the API
+        CartFixture.of(1, 9).applyViaApi(baseUrl);
+        HomePage homePage = new HomePage(driver, baseUrl);
+        homePage.open();
+
+        // Assert: UI shows the seeded state, button still enabled
+        homePage.assertCartCount(9);
+        assertFalse(
+            homePage.isAddToCartButtonDisabled(1),
+            "Add to cart button should be enabled below max quantity"
+        );
+
+        // Act: The final add goes through the UI
+        homePage.addFirstProductToCart();
+
+        // Assert: Button is disabled at max quantity
+        homePage.assertCartCount(10);
+        assertTrue(
+            homePage.isAddToCartButtonDisabled(1),
+            "Add to cart button should be disabled at max quantity"
+        );
+        homePage.assertTextVisible("Maximum quantity reached");
+
+        System.out.println("✅ Seeded max quantity test passed");
+    }
+
+    /**
+     * Test 6: Batched Adds (Setup Helper)
+     * 
+     * Validates HomePage.addToCart(Map), which posts the add-to-cart forms' 
+     * data without clicking (see its javadoc):
+     *   1. Add item 1 twice and item 2 once in one batch.
+     *   2. Verify the cart badge and the stored quantities.
+     *   3. Verify zero and negative counts are rejected before anything is sent.
+     */
+    @Test
+    @UsesCart
+    public void testBatchAddToCart() throws Exception {
+        // Arrange: Reset cart and open homepage
+        ApiUtils.resetCart(baseUrl);
+        HomePage homePage = new HomePage(driver, baseUrl);
+        homePage.open();
+
+        // Act: Three adds in one batch (waits for the badge to reach 3)
+        Map<Integer, Integer> batch = new LinkedHashMap<>();
+        batch.put(1, 2);
+        batch.put(2, 1);
+        homePage.addToCart(batch);
+
+        // Assert: Backend recorded each item's count
+        DbUtils.awaitCartQuantity(dbPath, 1, 2);
+        DbUtils.awaitCartQuantity(dbPath, 2, 1);
+
+        // Assert: Non-positive counts are rejected, cart unchanged
+        assertThrows(IllegalArgumentException.class, () -> homePage.addToCart(Map.of(1, 0)));
+        assertThrows(IllegalArgumentException.class, () -> homePage.addToCart(Map.of(1, -1)));
+        homePage.assertCartCount(3);
+
+        System.out.println("✅ Batch add test passed");
+    }
+
+    /**
+     * Test 7: Lean Mode Blocks Images Without Breaking the Page
+     * 
+     * Validates @LeanBrowser (see LeanMode):
+     *   1. Open the homepage with images, fonts and media blocked through CDP.
+     *   2. Verify the page still becomes ready and lists the products.
+     *   3. Verify the product images were failed by the interception and never rendered.
+     */
+    @Test
+    @LeanBrowser
+    public void testLeanModeBlocksImagesAndPageStillLoads() {
+        // Act: Open homepage (waits for network idle + product list)
+        HomePage homePage = new HomePage(driver, baseUrl);
+        homePage.open();
+
+        // Assert: Page is usable
+        int productCount = homePage.getProductCount();
+        assertTrue(productCount > 0, "Homepage should list products in lean mode");
+
+        // Assert: Image requests were failed by the interception (Fetch.failRequest), none rendered
+        Map<String, Integer> blocked = LeanMode.blockedRequests(driver);
+        assertTrue(
+            blocked.getOrDefault("Image", 0) > 0,
+            "Expected the product images to be blocked, got " + blocked
+        );
+        Object rendered = ((JavascriptExecutor) driver).executeScript(
+            "return Array.prototype.filter.call(document.images, function (img) { return img.naturalWidth > 0; }).length;"
+        );
+        assertEquals(0L, ((Number) rendered).longValue(), "No image should have loaded in lean mode");
+
+        System.out.println("✅ Lean mode test passed: blocked " + blocked);
+    }
+
+    /**
+     * Test 8: Cart Table Rows Are Keyed by Item ID
+     * 
+     * Validates CartPage.rows():
+     *   1. Seed items 1 and 2 via the API.
+     *   2. Open the cart page.
+     *   3. Verify the rows are keyed by the real item ids with the seeded quantities.
+     */
+    @Test
+    @UsesCart
+    public void testCartRowsKeyedByItemId() {
+        // Arrange: Two different items in the cart
+        CartFixture.of(1, 2).with(2, 1).applyViaApi(baseUrl);
+        HomePage homePage = new HomePage(driver, baseUrl);
+        homePage.open();
+
+        // Act: Read the cart table
+        CartPage cartPage = homePage.goToCart();
+        Map<Integer, CartRow> rows = cartPage.rows();
+
+        // Assert: One row per item, keyed by its id
+        assertEquals(Set.of(1, 2), rows.keySet(), "Cart rows should be keyed by item id");
+        assertEquals(1, rows.get(1).itemId());
+        assertEquals(2, rows.get(1).quantity());
+        assertEquals(1, rows.get(2).quantity());
+
+        System.out.println("✅ Cart rows keyed by item id: " + rows.keySet());
+    }
+}
@@ -0,0 +1,203 @@
+package automation.utils;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Drop-in replacement for WebDriverWait with adaptive polling.
+ *
+ * WebDriverWait polls every 500 ms, so a condition that becomes true after 20 ms
+ * still costs up to half a second. AdaptiveWait checks immediately, then polls
+ * fast and backs off: 10, 20, 40, 80, 100, 100, ... ms. Conditions that settle
+ * quickly return within a few milliseconds. Slow ones are capped at 100 ms
+ * between polls, so reaction time stays under 100 ms without hammering chromedriver.
+ *
+ * Like WebDriverWait, a condition is satisfied by any non-null, non-FALSE result,
+ * and NotFoundException / StaleElementReferenceException are treated as "not yet".
+ *
+ * Per-condition statistics (calls, polls, time spent, timeouts) are collected for
+ * every wait and printed at the end of the run when wait.stats=true.
+ *
+ * Config (config.properties or -D):
+ *   wait.poll.initialMillis - first poll interval (default 10)
+ *   wait.poll.maxMillis     - poll interval cap (default 100)
+ *   wait.stats              - print per-condition statistics at exit (default false)
+ */
+public final class AdaptiveWait implements Wait<WebDriver> {
+
+    private static final long INITIAL_POLL_MILLIS = Math.max(1, TestConfig.getInt("wait.poll.initialMillis", 10));
+    private static final long MAX_POLL_MILLIS = Math.max(INITIAL_POLL_MILLIS, TestConfig.getInt("wait.poll.maxMillis", 100));
+
+    private static final Map<String, ConditionStats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        if (TestConfig.getBoolean("wait.stats", false)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(AdaptiveWait::printStats, "wait-stats"));
+        }
+    }
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    /**
+     * @param driver The WebDriver passed to every condition.
+     * @param timeout Maximum time to wait for a condition.
+     */
+    public AdaptiveWait(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Repeatedly apply the condition until it returns a truthy value or the timeout expires.
+     * Statistics are keyed by the condition's toString() (ExpectedConditions describe
+     * themselves); use {@link #until(String, Function)} for lambdas.
+     *
+     * @param condition The condition to evaluate (e.g., an ExpectedConditions factory result).
+     * @return The condition's last (truthy) return value.
+     * @throws TimeoutException If the condition is not met in time.
+     */
+    @Override
+    public <V> V until(Function<? super WebDriver, V> condition) {
+        return until(describe(condition), condition);
+    }
+
+    /**
+     * Repeatedly apply a named condition until it returns a truthy value or the timeout expires.
+     *
+     * @param name What is being waited for (e.g., "cart count 3"); the statistics key and
+     *             the timeout message. Keep it stable across calls of the same kind.
+     * @param condition The condition to evaluate.
+     * @return The condition's last (truthy) return value.
+     * @throws TimeoutException If the condition is not met in time.
+     */
+    public <V> V until(String name, Function<? super WebDriver, V> condition) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long pollMillis = INITIAL_POLL_MILLIS;
+        int polls = 0;
+        RuntimeException lastError = null;
+
+        while (true) {
+            polls++;
+            try {
+                V value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(name, polls, System.nanoTime() - start, false);
+                    return value;
+                }
+                lastError = null;
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                record(name, polls, System.nanoTime() - start, true);
+                throw new TimeoutException(
+                    "Expected condition failed: waiting for " + name
+                        + " (tried for " + timeout.toMillis() + " ms, " + polls + " polls)",
+                    lastError
+                );
+            }
+
+            sleep(Math.min(pollMillis, Math.max(1, remainingNanos / 1_000_000)));
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+
+    // ========================================================================
+    // STATISTICS
+    // ========================================================================
+
+    /**
+     * Aggregated timings for one condition (keyed by the condition's description).
+     */
+    public static final class ConditionStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder polls = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        public long calls() {
+            return calls.sum();
+        }
+
+        public long polls() {
+            return polls.sum();
+        }
+
+        public long timeouts() {
+            return timeouts.sum();
+        }
+
+        public Duration totalTime() {
+            return Duration.ofNanos(totalNanos.sum());
+        }
+    }
+
+    private static void record(String name, int polls, long elapsedNanos, boolean timedOut) {
+        ConditionStats stats = STATS.computeIfAbsent(name, key -> new ConditionStats());
+        stats.calls.increment();
+        stats.polls.add(polls);
+        stats.totalNanos.add(elapsedNanos);
+        if (timedOut) {
+            stats.timeouts.increment();
+        }
+    }
+
+    /**
+     * ExpectedConditions describe themselves in toString(); unnamed lambdas don't, so fall back
+     * to the class (all unnamed lambdas of one class then share a bucket).
+     */
+    private static String describe(Function<?, ?> condition) {
+        String text = condition.toString();
+        return text.contains("$$Lambda") ? condition.getClass().getName().replaceAll("\\$\\$Lambda.*", " (lambda)") : text;
+    }
+
+    /**
+     * @return A snapshot of the statistics collected so far, keyed by condition.
+     */
+    public static Map<String, ConditionStats> stats() {
+        return new TreeMap<>(STATS);
+    }
+
+    /**
+     * Print per-condition statistics, slowest total first.
+     */
+    public static void printStats() {
+        if (STATS.isEmpty()) {
+            return;
+        }
+        System.out.println("⏱️ Wait statistics (calls / polls / timeouts / total ms):");
+        STATS.entrySet().stream()
+            .sorted(Comparator.comparingLong(
+                (Map.Entry<String, ConditionStats> e) -> e.getValue().totalNanos.sum()).reversed())
+            .forEach(e -> System.out.printf(
+                "   %5d / %6d / %3d / %8d  %s%n",
+                e.getValue().calls(), e.getValue().polls(), e.getValue().timeouts(),
+                e.getValue().totalTime().toMillis(), e.getKey()
+            ));
+    }
+}
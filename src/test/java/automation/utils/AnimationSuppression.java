@@ -0,0 +1,124 @@
+package automation.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Opt-in mode that makes UI steps settle immediately: no CSS transitions or
+ * animations, and shorter page timers.
+ *
+ * A script is registered with CDP Page.addScriptToEvaluateOnNewDocument, so
+ * Chrome runs it before any page script on every navigation, including reloads
+ * and form-post redirects. The script:
+ *   - injects a style that zeroes transition and animation durations and delays;
+ *   - scales the delay of every page setTimeout by browser.animations.timerFactor,
+ *     so a "hide the notification after 3 s" timer fires after 300 ms at 0.1.
+ * setInterval is left alone: scaling a polling interval only makes it spin.
+ * The native setTimeout stays reachable as window.__e2eNativeSetTimeout, which
+ * DomWait uses so its own timeout is not shortened.
+ *
+ * Enable for the whole run with browser.animations.suppress=true, or per
+ * test/class with @SuppressAnimations. The script is removed again when a
+ * pooled session is handed to a test that did not ask for it.
+ *
+ * Config (config.properties or -D):
+ *   browser.animations.suppress     - enable for every test (default false)
+ *   browser.animations.timerFactor  - setTimeout delay multiplier (default 0.1)
+ */
+public final class AnimationSuppression {
+
+    private static final double TIMER_FACTOR = Math.max(0, Math.min(1,
+        Double.parseDouble(TestConfig.get("browser.animations.timerFactor", "0.1"))));
+
+    private static final String SCRIPT = String.join("\n",
+        "(function () {",
+        "  if (window.__e2eNativeSetTimeout) { return; }",
+        "  var css = '*, *::before, *::after {'",
+        "    + ' transition-duration: 0s !important; transition-delay: 0s !important;'",
+        "    + ' animation-duration: 0s !important; animation-delay: 0s !important;'",
+        "    + ' scroll-behavior: auto !important; }';",
+        "  function injectStyle() {",
+        "    var style = document.createElement('style');",
+        "    style.setAttribute('data-e2e', 'no-animations');",
+        "    style.textContent = css;",
+        "    (document.head || document.documentElement).appendChild(style);",
+        "  }",
+        "  if (document.documentElement) { injectStyle(); }",
+        "  else { document.addEventListener('DOMContentLoaded', injectStyle); }",
+        "  var nativeSetTimeout = window.setTimeout;",
+        "  Object.defineProperty(window, '__e2eNativeSetTimeout', { value: nativeSetTimeout.bind(window) });",
+        "  window.setTimeout = function (handler, delay) {",
+        "    var args = Array.prototype.slice.call(arguments);",
+        "    args[1] = Math.floor((Number(delay) || 0) * %s);",
+        "    return nativeSetTimeout.apply(window, args);",
+        "  };",
+        "})();"
+    ).formatted(String.format(Locale.ROOT, "%.3f", TIMER_FACTOR));
+
+    private AnimationSuppression() {
+    }
+
+    /**
+     * @return true if suppression is switched on for the whole run.
+     */
+    public static boolean isEnabledByDefault() {
+        return TestConfig.getBoolean("browser.animations.suppress", false);
+    }
+
+    /**
+     * Switch suppression on or off for a session, e.g. right after leasing it from the pool.
+     * Applies from the next navigation. Turning it off on a session that never had it is free.
+     *
+     * @param driver The WebDriver (lazy handles and wrappers are unwrapped).
+     * @param enabled Whether to suppress animations for the next test.
+     * @return The same driver, for use in factory chains.
+     */
+    public static WebDriver apply(WebDriver driver, boolean enabled) {
+        if (enabled) {
+            NetworkMonitor.of(driver)
+                .ifPresentOrElse(
+                    monitor -> monitor.extension(Session.class, Session::new).enable(),
+                    () -> System.err.println("⚠️ Animation suppression needs Chrome DevTools. Running without it."));
+        } else {
+            NetworkMonitor.ifAttached(driver)
+                .ifPresent(monitor -> monitor.extension(Session.class, Session::new).disable());
+        }
+        return driver;
+    }
+
+    /**
+     * Suppression state for one browser session: the id of the registered script, if any.
+     */
+    private static final class Session {
+        private final DevTools devTools;
+        private String scriptId;
+
+        private Session(NetworkMonitor monitor) {
+            this.devTools = monitor.devTools();
+        }
+
+        private synchronized void enable() {
+            if (scriptId != null) {
+                return;
+            }
+            Map<String, Object> result = devTools.send(new Command<>(
+                "Page.addScriptToEvaluateOnNewDocument",
+                Map.of("source", SCRIPT),
+                input -> input.read(Json.MAP_TYPE)));
+            scriptId = String.valueOf(result.get("identifier"));
+        }
+
+        private synchronized void disable() {
+            if (scriptId == null) {
+                return;
+            }
+            devTools.send(new Command<>("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", scriptId)));
+            scriptId = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package automation.utils;
+
+/**
+ * A running copy of the app under test, with its own port and its own shop.db.
+ *
+ * Leased to one test at a time by {@link AppInstances}.
+ */
+public interface AppInstance extends AutoCloseable {
+
+    /**
+     * @return The base URL of this instance (e.g., http://localhost:41234).
+     */
+    String baseUrl();
+
+    /**
+     * @return The absolute path to this instance's private shop.db.
+     */
+    String dbPath();
+
+    /**
+     * @return true while the instance can still serve requests.
+     */
+    boolean isAlive();
+
+    /**
+     * Stop the instance and delete its private files.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,114 @@
+package automation.utils;
+
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fixture manager for isolated app-under-test instances.
+ *
+ * In the default "shared" mode every test talks to the single server at base.url
+ * and this class does nothing. In "node" mode each parallel worker leases its own
+ * instance (private shop.db copy, private port) for the duration of a test, so
+ * cart resets and adds from one worker can never corrupt another. In "stub" mode
+ * each worker gets an in-JVM {@link ShopStubServer} instead, so no Node.js app is
+ * needed at all. Instances are started on demand, reused across tests, and
+ * stopped when the JVM exits.
+ *
+ * Config (config.properties or -D):
+ *   app.instances      - shared (default) | node | stub
+ *   app.instances.max  - upper bound on concurrently running instances (default: CPU cores)
+ */
+public final class AppInstances {
+
+    private static final String MODE = TestConfig.get("app.instances", "shared").toLowerCase();
+    private static final int MAX_INSTANCES = Math.max(1, TestConfig.getInt(
+        "app.instances.max", Runtime.getRuntime().availableProcessors()));
+
+    private static final Deque<AppInstance> IDLE = new ConcurrentLinkedDeque<>();
+    private static final Set<AppInstance> ALL = ConcurrentHashMap.newKeySet();
+    private static final Semaphore PERMITS = new Semaphore(MAX_INSTANCES, true);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AppInstances::shutdown, "app-instances-shutdown"));
+    }
+
+    private AppInstances() {
+    }
+
+    /**
+     * @return true if tests should run against per-worker instances instead of base.url.
+     */
+    public static boolean isIsolated() {
+        return !"shared".equals(MODE);
+    }
+
+    /**
+     * Lease an instance for the current test, starting one if none is idle.
+     * Blocks while app.instances.max instances are already leased.
+     *
+     * @return The leased instance, or null in shared mode.
+     */
+    public static AppInstance acquire() {
+        if (!isIsolated()) {
+            return null;
+        }
+        PERMITS.acquireUninterruptibly();
+        try {
+            AppInstance instance;
+            while ((instance = IDLE.pollFirst()) != null) {
+                if (instance.isAlive()) {
+                    return instance;
+                }
+                System.err.println("⚠️ App instance " + instance.baseUrl() + " died. Replacing it.");
+                ALL.remove(instance);
+                instance.close();
+            }
+            instance = start();
+            ALL.add(instance);
+            return instance;
+        } catch (RuntimeException e) {
+            PERMITS.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return an instance leased with {@link #acquire()}. Safe to call with null.
+     *
+     * @param instance The instance to hand back.
+     */
+    public static void release(AppInstance instance) {
+        if (instance == null) {
+            return;
+        }
+        IDLE.offerFirst(instance);
+        PERMITS.release();
+    }
+
+    private static AppInstance start() {
+        switch (MODE) {
+            case "node":
+                return NodeAppInstance.start();
+            case "stub":
+                return ShopStubServer.start();
+            default:
+                throw new IllegalStateException(
+                    "Unknown app.instances mode '" + MODE + "'. Expected: shared, node, stub"
+                );
+        }
+    }
+
+    /**
+     * Stop every instance. Runs from the JVM shutdown hook.
+     */
+    private static void shutdown() {
+        for (AppInstance instance : ALL) {
+            instance.close();
+        }
+        ALL.clear();
+        IDLE.clear();
+    }
+}
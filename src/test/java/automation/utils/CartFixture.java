@@ -0,0 +1,123 @@
+package automation.utils;
+
+import automation.db.generated.CartTable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative cart precondition: "the cart holds exactly these items in these quantities".
+ *
+ * Tests that only check a boundary (e.g., the button at maximum quantity) should
+ * seed that state directly instead of clicking their way there, then open the
+ * page and verify through the UI:
+ *
+ *   CartFixture.of(1, 10).applyViaApi(baseUrl);
+ *   homePage.open();
+ *
+ * applyViaApi goes through the app's own endpoints (POST /reset-cart, then
+ * POST /add-to-cart per unit), so the app's rules (e.g., max quantity) still apply.
+ * applyViaDb writes the cart table directly in one transaction. It is faster and
+ * can create states the API refuses, but it bypasses the app.
+ *
+ * Instances are immutable; {@link #with(int, int)} returns a new fixture.
+ */
+public final class CartFixture {
+
+    private static final String CLEAR_CART = "DELETE FROM " + CartTable.TABLE;
+    private static final String INSERT_CART_ROW = "INSERT INTO " + CartTable.TABLE
+        + " (" + CartTable.ITEM_ID + ", " + CartTable.QUANTITY + ") VALUES (?, ?)";
+
+    private final Map<Integer, Integer> quantities;
+
+    private CartFixture(Map<Integer, Integer> quantities) {
+        this.quantities = Collections.unmodifiableMap(quantities);
+    }
+
+    /**
+     * @return A fixture for an empty cart.
+     */
+    public static CartFixture empty() {
+        return new CartFixture(new LinkedHashMap<>());
+    }
+
+    /**
+     * @param itemId The ID of the item.
+     * @param quantity Its quantity in the cart.
+     * @return A fixture for a cart holding just that item.
+     */
+    public static CartFixture of(int itemId, int quantity) {
+        return empty().with(itemId, quantity);
+    }
+
+    /**
+     * @param itemId The ID of the item.
+     * @param quantity Its quantity in the cart (0 removes it from the spec).
+     * @return A new fixture with the item set to that quantity.
+     */
+    public CartFixture with(int itemId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must not be negative: " + quantity);
+        }
+        Map<Integer, Integer> copy = new LinkedHashMap<>(quantities);
+        if (quantity == 0) {
+            copy.remove(itemId);
+        } else {
+            copy.put(itemId, quantity);
+        }
+        return new CartFixture(copy);
+    }
+
+    /**
+     * @return Item ID to quantity, in the order the items were specified.
+     */
+    public Map<Integer, Integer> quantities() {
+        return quantities;
+    }
+
+    /**
+     * @return The sum of all quantities (what the header cart badge should show).
+     */
+    public int totalQuantity() {
+        return quantities.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Reach the state through the app's API: reset the cart, then add each unit.
+     *
+     * @param baseUrl The base URL of the application.
+     * @throws AssertionError If any request fails (e.g., above the app's max quantity).
+     */
+    public void applyViaApi(String baseUrl) {
+        ApiUtils.resetCart(baseUrl);
+        quantities.forEach((itemId, quantity) -> {
+            for (int i = 0; i < quantity; i++) {
+                ApiUtils.addToCart(baseUrl, itemId);
+            }
+        });
+        System.out.println("🧪 Cart seeded via API: " + this);
+    }
+
+    /**
+     * Reach the state by writing the cart table directly, in one transaction:
+     * the cart is cleared and every row inserted in a single DbUtils batch.
+     *
+     * @param dbPath The absolute or relative path to shop.db.
+     * @throws SQLException If the write fails (the transaction is rolled back).
+     */
+    public void applyViaDb(String dbPath) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        quantities.forEach((itemId, quantity) -> rows.add(new Object[] {itemId, quantity}));
+        DbUtils.executeBatch(dbPath, CLEAR_CART, INSERT_CART_ROW, rows);
+        System.out.println("🧪 Cart seeded via DB: " + this);
+    }
+
+    @Override
+    public String toString() {
+        return "CartFixture" + quantities;
+    }
+}
@@ -0,0 +1,53 @@
+package automation.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-server cart locks for parallel test execution.
+ *
+ * Every app instance has exactly one cart, so two workers that reset or add to
+ * the cart of the same server would corrupt each other's state. Locks are keyed
+ * by baseUrl: workers sharing a server take turns, workers on isolated servers
+ * run fully in parallel.
+ */
+public final class CartLock {
+
+    private static final Map<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private CartLock() {
+    }
+
+    /**
+     * Block until the cart of the given server is free, then take it.
+     * The lock must be released from the same thread via {@link #release(ReentrantLock)}.
+     *
+     * @param baseUrl The base URL of the app instance whose cart will be used.
+     * @return The held lock.
+     */
+    public static ReentrantLock acquire(String baseUrl) {
+        ReentrantLock lock = LOCKS.computeIfAbsent(normalize(baseUrl), key -> new ReentrantLock(true));
+        if (!lock.tryLock()) {
+            System.out.println("⏳ Waiting for cart lock on " + baseUrl);
+            lock.lock();
+        }
+        return lock;
+    }
+
+    /**
+     * Release a lock obtained from {@link #acquire(String)}. Safe to call with null.
+     *
+     * @param lock The lock to release.
+     */
+    public static void release(ReentrantLock lock) {
+        if (lock != null && lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    private static String normalize(String baseUrl) {
+        String key = baseUrl.strip().toLowerCase();
+        return key.endsWith("/") ? key.substring(0, key.length() - 1) : key;
+    }
+}
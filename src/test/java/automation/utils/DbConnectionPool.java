@@ -0,0 +1,301 @@
+package automation.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-database pool of open SQLite connections, each with a bounded LRU cache of
+ * prepared statements. Used internally by DbUtils.
+ *
+ * Opening a SQLite connection means opening the file and reading the schema.
+ * Preparing a statement means parsing and planning the SQL. A cart check after
+ * every UI step paid both every time. With the pool, a repeated query reuses an
+ * open connection and an already compiled statement, so only the execution is left.
+ *
+ * Safe for concurrent test workers: a connection is leased to one thread at a
+ * time, and every worker gets its own. SQLite itself handles concurrent readers.
+ * Connections stay in auto-commit mode. A connection that failed with an
+ * SQLException is closed instead of being returned, because its state is unknown.
+ *
+ * Reads and writes use separate pools, because their connections are opened
+ * with different settings (see DbProfile): read-only assertion connections
+ * never hold write locks on the app's database.
+ * 
+ * Per-run app instances delete their DB when they stop; they call
+ * {@link #close(String)} so no connection outlives its file.
+ *
+ * Config (config.properties or -D):
+ *   db.pool.maxIdle          - idle connections kept per database (default 4)
+ *   db.statementCache.size   - prepared statements cached per connection, 0 = no caching (default 32);
+ *                              read when a database's pool is created
+ */
+final class DbConnectionPool {
+
+    private static final int MAX_IDLE = Math.max(0, TestConfig.getInt("db.pool.maxIdle", 4));
+
+    private static final Map<PoolKey, Pool> POOLS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DbConnectionPool::closeAll, "db-pool-shutdown"));
+    }
+
+    private DbConnectionPool() {
+    }
+
+    /**
+     * Work done with a leased connection.
+     */
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T run(PooledConnection connection) throws SQLException;
+    }
+
+    /**
+     * Lease a full-access connection for the database, run the work, and return the connection.
+     *
+     * @param dbPath The absolute or relative path to the database file.
+     * @param work What to do with the connection.
+     * @return The work's result.
+     * @throws SQLException If opening the connection or the work fails.
+     */
+    static <T> T withConnection(String dbPath, SqlWork<T> work) throws SQLException {
+        return withConnection(dbPath, DbProfile.Access.WRITE, work);
+    }
+
+    /**
+     * Lease a read-only connection for the database, run the work, and return the connection.
+     *
+     * @param dbPath The absolute or relative path to the database file.
+     * @param work What to do with the connection (must not write).
+     * @return The work's result.
+     * @throws SQLException If opening the connection or the work fails.
+     */
+    static <T> T withReadConnection(String dbPath, SqlWork<T> work) throws SQLException {
+        return withConnection(dbPath, DbProfile.Access.READ, work);
+    }
+
+    private static <T> T withConnection(String dbPath, DbProfile.Access access, SqlWork<T> work)
+            throws SQLException {
+        try (Lease lease = lease(dbPath, access)) {
+            T result = work.run(lease.connection());
+            lease.healthy();
+            return result;
+        }
+    }
+
+    /**
+     * Lease a connection for longer than one call (e.g., an open cursor).
+     * Close the lease to return the connection; unless {@link Lease#healthy()}
+     * was called, the connection is closed instead.
+     *
+     * @param dbPath The absolute or relative path to the database file.
+     * @param access READ for a read-only connection, WRITE for full access.
+     * @return The lease.
+     * @throws SQLException If a new connection cannot be opened.
+     */
+    static Lease lease(String dbPath, DbProfile.Access access) throws SQLException {
+        Pool pool = POOLS.computeIfAbsent(new PoolKey(dbPath, access), Pool::new);
+        return new Lease(pool, pool.borrow());
+    }
+
+    /**
+     * Close every idle connection to a database and stop pooling it. Leased
+     * connections are closed when they come back.
+     *
+     * @param dbPath The database path the connections were opened with.
+     */
+    static void close(String dbPath) {
+        for (DbProfile.Access access : DbProfile.Access.values()) {
+            Pool pool = POOLS.remove(new PoolKey(dbPath, access));
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    private static void closeAll() {
+        POOLS.keySet().forEach(key -> close(key.dbPath()));
+    }
+
+    private record PoolKey(String dbPath, DbProfile.Access access) {
+    }
+
+    /**
+     * A connection on loan from a pool.
+     */
+    static final class Lease implements AutoCloseable {
+        private final Pool pool;
+        private final PooledConnection connection;
+        private boolean healthy;
+        private boolean closed;
+
+        private Lease(Pool pool, PooledConnection connection) {
+            this.pool = pool;
+            this.connection = connection;
+        }
+
+        PooledConnection connection() {
+            return connection;
+        }
+
+        /**
+         * Mark the work as completed without errors, so the connection can be reused.
+         */
+        void healthy() {
+            healthy = true;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (healthy) {
+                connection.closeUncached();
+                pool.release(connection);
+            } else {
+                connection.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * An open connection plus its prepared-statement cache (least recently used evicted first).
+     *
+     * With a cache size of 0, nothing is cached: every prepare() compiles a new
+     * statement, which stays open until the lease ends (or until the same SQL is
+     * prepared again on this lease) and is then closed.
+     */
+    static final class PooledConnection {
+        private final Connection connection;
+        private final int cacheSize;
+        private final Map<String, PreparedStatement> statements;
+        private final Map<String, PreparedStatement> uncached = new HashMap<>();
+
+        private PooledConnection(Connection connection, int cacheSize) {
+            this.connection = connection;
+            this.cacheSize = cacheSize;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > PooledConnection.this.cacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * @return The underlying JDBC connection, e.g. for transaction control.
+         *         Restore auto-commit before the lease ends.
+         */
+        Connection jdbc() {
+            return connection;
+        }
+
+        /**
+         * Get a compiled statement for the SQL, reusing a cached one if possible.
+         * The statement belongs to the cache: close its ResultSets, never the statement.
+         *
+         * @param sql The SQL with optional ? placeholders.
+         * @return A statement with its parameters cleared.
+         * @throws SQLException If the SQL does not compile.
+         */
+        PreparedStatement prepare(String sql) throws SQLException {
+            if (cacheSize == 0) {
+                PreparedStatement previous = uncached.put(sql, connection.prepareStatement(sql));
+                if (previous != null) {
+                    closeQuietly(previous);
+                }
+                return uncached.get(sql);
+            }
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        /**
+         * Close the statements prepared without caching during the lease that just ended.
+         */
+        private void closeUncached() {
+            uncached.values().forEach(PooledConnection::closeQuietly);
+            uncached.clear();
+        }
+
+        private void closeQuietly() {
+            closeUncached();
+            statements.values().forEach(PooledConnection::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // Nothing left to clean up
+            }
+        }
+
+        private static void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                // Statement already unusable
+            }
+        }
+    }
+
+    /**
+     * Idle connections for one database and access.
+     */
+    private static final class Pool {
+        private final PoolKey key;
+        private final int statementCacheSize = Math.max(0, TestConfig.getInt("db.statementCache.size", 32));
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private boolean closed;
+
+        private Pool(PoolKey key) {
+            this.key = key;
+        }
+
+        private PooledConnection borrow() throws SQLException {
+            synchronized (this) {
+                PooledConnection connection = idle.pollFirst();
+                if (connection != null) {
+                    return connection;
+                }
+            }
+            return new PooledConnection(DbProfile.open(key.dbPath(), key.access()), statementCacheSize);
+        }
+
+        private void release(PooledConnection connection) {
+            synchronized (this) {
+                if (!closed && idle.size() < MAX_IDLE) {
+                    idle.addFirst(connection);
+                    return;
+                }
+            }
+            connection.closeQuietly();
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                idle.forEach(PooledConnection::closeQuietly);
+                idle.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package automation.utils;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * How DbUtils opens SQLite connections to a database the app under test is using.
+ *
+ * Assertion reads and fixture writes get different settings:
+ *   - READ connections are opened read-only (SQLITE_OPEN_READONLY) with
+ *     PRAGMA query_only, so a check can never modify or lock the database for
+ *     writing. They memory-map the file (mmap_size), so repeated reads come
+ *     from the page cache instead of read() calls;
+ *   - WRITE connections (cart resets, fixtures, snapshot restores) keep full
+ *     access and can switch the database to another journal mode (db.journalMode).
+ * Both wait up to busy_timeout for a lock instead of failing with SQLITE_BUSY.
+ *
+ * WAL: in the default rollback-journal mode, a reader holds a shared lock that
+ * makes the app's commit wait until the read ends. In WAL mode, readers and the
+ * writer never block each other. Without db.journalMode, the first READ connection
+ * to a database that is not in WAL mode prints a hint. With it, the mode is set
+ * before that first read. db.journalMode=wal is stored in the file, so use it
+ * with per-run app instances, not with a checked-in shop.db.
+ *
+ * Config (config.properties or -D):
+ *   db.busyTimeoutMillis - wait for a lock before SQLITE_BUSY (default 5000)
+ *   db.readOnly          - open READ connections read-only (default true)
+ *   db.queryOnly         - PRAGMA query_only on READ connections (default true)
+ *   db.mmapSize          - bytes memory-mapped by READ connections, 0 = off (default 67108864)
+ *   db.journalMode       - journal mode set by WRITE connections, e.g. wal (default: unchanged)
+ */
+final class DbProfile {
+
+    /**
+     * What a connection is for.
+     */
+    enum Access { READ, WRITE }
+
+    private static final int BUSY_TIMEOUT_MILLIS = Math.max(0, TestConfig.getInt("db.busyTimeoutMillis", 5000));
+    private static final boolean READ_ONLY = TestConfig.getBoolean("db.readOnly", true);
+    private static final boolean QUERY_ONLY = TestConfig.getBoolean("db.queryOnly", true);
+    private static final long MMAP_SIZE = Math.max(0, Long.parseLong(TestConfig.get("db.mmapSize", "67108864")));
+    private static final String JOURNAL_MODE = TestConfig.get("db.journalMode", "").trim().toUpperCase(Locale.ROOT);
+
+    private static final Set<String> JOURNAL_CHECKED = ConcurrentHashMap.newKeySet();
+
+    private DbProfile() {
+    }
+
+    /**
+     * Open a connection with the settings for its access.
+     *
+     * @param dbPath The absolute or relative path to the database (or a SQLite URI filename).
+     * @param access READ for assertion reads, WRITE for anything that modifies the database.
+     * @return A new connection; the caller owns it.
+     * @throws SQLException If the connection cannot be opened or configured.
+     */
+    static Connection open(String dbPath, Access access) throws SQLException {
+        boolean firstRead = access == Access.READ && JOURNAL_CHECKED.add(dbPath);
+        if (firstRead && !JOURNAL_MODE.isEmpty()) {
+            // Switch the journal mode before the first read, not at the first write
+            open(dbPath, Access.WRITE).close();
+        }
+
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(BUSY_TIMEOUT_MILLIS);
+        if (access == Access.READ) {
+            config.setReadOnly(READ_ONLY);
+            config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(MMAP_SIZE));
+        } else if (!JOURNAL_MODE.isEmpty()) {
+            config.setJournalMode(SQLiteConfig.JournalMode.valueOf(JOURNAL_MODE));
+        }
+
+        Connection connection = config.createConnection("jdbc:sqlite:" + dbPath);
+        try {
+            if (access == Access.READ) {
+                try (Statement stmt = connection.createStatement()) {
+                    if (QUERY_ONLY) {
+                        stmt.execute("PRAGMA query_only = ON");
+                    }
+                    if (firstRead && JOURNAL_MODE.isEmpty()) {
+                        hintIfNotWal(stmt, dbPath);
+                    }
+                }
+            }
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static void hintIfNotWal(Statement stmt, String dbPath) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            String mode = rs.next() ? rs.getString(1) : "unknown";
+            if (!"wal".equalsIgnoreCase(mode) && !"memory".equalsIgnoreCase(mode)) {
+                System.out.println("ℹ️ " + dbPath + " uses journal_mode=" + mode
+                    + ": app commits wait while a DB check reads. Set db.journalMode=wal to let them overlap.");
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package automation.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory read replica of a SQLite database, for read-heavy assertion code.
+ *
+ * The source (shop.db, which the app writes at the same time) is copied into a
+ * shared-cache in-memory database with the online backup API. DbUtils reads
+ * then run against RAM on pooled replica connections, instead of taking file
+ * locks on the live database. Those connections are opened with the READ profile
+ * (read-only, query_only; see DbProfile), so a stray write fails instead of
+ * silently changing the replica until its next refresh.
+ *
+ * Freshness: before a read, the replica asks the source for PRAGMA data_version
+ * on a dedicated connection. The value changes whenever another connection
+ * (the app, or a DbUtils write) commits. The replica is re-copied only when it
+ * has changed, so a run of assertions with no writes in between costs one PRAGMA
+ * each and no copying. The copy is whole-database (shop.db is small); what is
+ * incremental is that unchanged data is never copied twice. Refreshes take a
+ * write lock, so readers never see a half-copied replica.
+ *
+ * With db.replica.checkIntervalMillis above 0, data_version is checked at most
+ * that often. That trades read-your-writes for fewer source round-trips.
+ *
+ * DbUtils routes fetchOne, fetchAll, query, queryOne, fetchInt and fetchString here
+ * when db.replica=true. Writes and streaming cursors always use the source.
+ *
+ * Config (config.properties or -D):
+ *   db.replica                    - read through in-memory replicas (default false; checked on every read)
+ *   db.replica.checkIntervalMillis - min time between data_version checks (default 0 = every read)
+ */
+final class DbReplica {
+
+    private static final long CHECK_INTERVAL_NANOS =
+        Math.max(0, TestConfig.getInt("db.replica.checkIntervalMillis", 0)) * 1_000_000L;
+
+    private static final Map<String, DbReplica> REPLICAS = new ConcurrentHashMap<>();
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+            () -> REPLICAS.keySet().forEach(DbReplica::close), "db-replica-shutdown"));
+    }
+
+    private final String sourcePath;
+    /** Pool key for the in-memory database (a SQLite URI filename). */
+    private final String memoryPath;
+    /** Keeps the shared-cache memory database alive, and receives the copies. */
+    private final Connection anchor;
+    /** data_version is per connection, so the same connection must ask every time. */
+    private final Connection watch;
+    private final PreparedStatement dataVersion;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long syncedVersion = -1;
+    private long lastCheckNanos;
+    private int refreshes;
+
+    private DbReplica(String sourcePath) throws SQLException {
+        this.sourcePath = sourcePath;
+        this.memoryPath = "file:shop-replica-" + SEQUENCE.incrementAndGet() + "?mode=memory&cache=shared";
+        this.anchor = DriverManager.getConnection("jdbc:sqlite:" + memoryPath);
+        Connection source = null;
+        try {
+            source = DbProfile.open(sourcePath, DbProfile.Access.READ);
+            this.dataVersion = source.prepareStatement("PRAGMA data_version");
+            this.watch = source;
+        } catch (SQLException e) {
+            if (source != null) {
+                source.close();
+            }
+            anchor.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if reads should go through replicas (db.replica=true).
+     */
+    static boolean isEnabled() {
+        return TestConfig.getBoolean("db.replica", false);
+    }
+
+    /**
+     * Run read-only work against the replica of a database, refreshing it first if the source changed.
+     *
+     * @param sourcePath The source database path.
+     * @param work The read (must not write: changes would be lost at the next refresh).
+     * @return The work's result.
+     * @throws SQLException If the refresh or the read fails.
+     */
+    static <T> T read(String sourcePath, DbConnectionPool.SqlWork<T> work) throws SQLException {
+        DbReplica replica = REPLICAS.get(sourcePath);
+        if (replica == null) {
+            synchronized (REPLICAS) {
+                replica = REPLICAS.get(sourcePath);
+                if (replica == null) {
+                    replica = new DbReplica(sourcePath);
+                    REPLICAS.put(sourcePath, replica);
+                }
+            }
+        }
+        return replica.read(work);
+    }
+
+    /**
+     * Drop the replica of a database (e.g., before the source is deleted).
+     *
+     * @param sourcePath The source database path.
+     */
+    static void close(String sourcePath) {
+        DbReplica replica = REPLICAS.remove(sourcePath);
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    private <T> T read(DbConnectionPool.SqlWork<T> work) throws SQLException {
+        refreshIfChanged();
+        lock.readLock().lock();
+        try {
+            return DbConnectionPool.withReadConnection(memoryPath, work);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void refreshIfChanged() throws SQLException {
+        long now = System.nanoTime();
+        if (syncedVersion >= 0 && CHECK_INTERVAL_NANOS > 0 && now - lastCheckNanos < CHECK_INTERVAL_NANOS) {
+            return;
+        }
+        lastCheckNanos = now;
+
+        // Read the version before copying: a commit in between only causes one extra refresh
+        long version = dataVersion();
+        if (version == syncedVersion) {
+            return;
+        }
+        lock.writeLock().lock();
+        try (Statement stmt = anchor.createStatement()) {
+            stmt.executeUpdate("restore from \"" + sourcePath.replace("\"", "\"\"") + "\"");
+            syncedVersion = version;
+            refreshes++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (refreshes == 1) {
+            System.out.println("🧠 DB reads served from in-memory replica of " + sourcePath);
+        }
+    }
+
+    private long dataVersion() throws SQLException {
+        try (ResultSet rs = dataVersion.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    private void close() {
+        lock.writeLock().lock();
+        try {
+            DbConnectionPool.close(memoryPath);
+            for (Connection connection : new Connection[] {watch, anchor}) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // Nothing left to clean up
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package automation.utils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reusable, name-addressable view over the current row of a ResultSet.
+ *
+ * Column labels are resolved to indexes once per query, on the first by-name
+ * read. After that, getInt("quantity") is a map lookup plus rs.getInt(index),
+ * with no metadata calls and no per-row allocation. Mappers that only read by
+ * index (e.g., the generated ones in automation.db.generated) never build the
+ * map at all. One instance is moved along the ResultSet by DbUtils; do not keep
+ * it beyond the mapper call.
+ *
+ * Labels are matched case-insensitively, like SQL column names.
+ */
+public final class DbRow {
+
+    private final ResultSet rs;
+    private Map<String, Integer> columns;
+
+    DbRow(ResultSet rs) {
+        this.rs = rs;
+    }
+
+    /**
+     * @param column The column label.
+     * @return Its 1-based index in the result.
+     * @throws SQLException If the result has no such column.
+     */
+    public int indexOf(String column) throws SQLException {
+        if (columns == null) {
+            columns = columnIndexes(rs);
+        }
+        Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("No column '" + column + "' in result " + columns.keySet());
+        }
+        return index;
+    }
+
+    /** @return The column as int (0 if SQL NULL). */
+    public int getInt(String column) throws SQLException {
+        return rs.getInt(indexOf(column));
+    }
+
+    /** @return The column as long (0 if SQL NULL). */
+    public long getLong(String column) throws SQLException {
+        return rs.getLong(indexOf(column));
+    }
+
+    /** @return The column as double (0 if SQL NULL). */
+    public double getDouble(String column) throws SQLException {
+        return rs.getDouble(indexOf(column));
+    }
+
+    /** @return The column as String (null if SQL NULL). */
+    public String getString(String column) throws SQLException {
+        return rs.getString(indexOf(column));
+    }
+
+    /** @return The column as the driver's default Java type (null if SQL NULL). */
+    public Object getObject(String column) throws SQLException {
+        return rs.getObject(indexOf(column));
+    }
+
+    /** @return The column at a 1-based index as int (0 if SQL NULL). */
+    public int getInt(int index) throws SQLException {
+        return rs.getInt(index);
+    }
+
+    /** @return The column at a 1-based index as long (0 if SQL NULL). */
+    public long getLong(int index) throws SQLException {
+        return rs.getLong(index);
+    }
+
+    /** @return The column at a 1-based index as double (0 if SQL NULL). */
+    public double getDouble(int index) throws SQLException {
+        return rs.getDouble(index);
+    }
+
+    /** @return The column at a 1-based index as String (null if SQL NULL). */
+    public String getString(int index) throws SQLException {
+        return rs.getString(index);
+    }
+
+    /** @return The column at a 1-based index as bytes (null if SQL NULL). */
+    public byte[] getBytes(int index) throws SQLException {
+        return rs.getBytes(index);
+    }
+
+    /** @return The column at a 1-based index as the driver's default Java type (null if SQL NULL). */
+    public Object getObject(int index) throws SQLException {
+        return rs.getObject(index);
+    }
+
+    /**
+     * @return true if the last column read was SQL NULL.
+     */
+    public boolean wasNull() throws SQLException {
+        return rs.wasNull();
+    }
+
+    private static Map<String, Integer> columnIndexes(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+        Map<String, Integer> indexes = new HashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            // First occurrence wins, as with ResultSet.findColumn
+            indexes.putIfAbsent(meta.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return indexes;
+    }
+}
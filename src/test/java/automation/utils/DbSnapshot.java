@@ -0,0 +1,227 @@
+package automation.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Point-in-time copy of a SQLite database, restorable in milliseconds.
+ *
+ * Built on the SQLite online backup API (sqlite-jdbc's "backup to" / "restore from"
+ * commands). The copy is consistent even while the app is writing. Restoring
+ * replaces the live database page by page under SQLite's own locking, so the
+ * running app simply sees the old contents again; no restart needed.
+ *
+ *   - {@link #golden(String)} takes one snapshot per database per run, the first
+ *     time it is asked for (i.e., the state before any test changed it);
+ *   - {@link #restore(String)} brings back the whole database;
+ *   - {@link #restore(String, String...)} brings back selected tables only
+ *     (the snapshot is ATTACHed and the tables are copied in one transaction).
+ *
+ * Every restore is followed by an integrity check (PRAGMA quick_check by default).
+ *
+ * Config (config.properties or -D):
+ *   db.snapshot.restore         - restore the golden snapshot before each test that
+ *                                 owns its DB or cart (default false, see BaseTest)
+ *   db.snapshot.integrityCheck  - quick, full or off (default quick)
+ */
+public final class DbSnapshot implements AutoCloseable {
+
+    private static final String INTEGRITY_CHECK = TestConfig.get("db.snapshot.integrityCheck", "quick");
+
+    private static final Map<String, DbSnapshot> GOLDEN = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+            () -> GOLDEN.values().forEach(DbSnapshot::close), "db-snapshot-cleanup"));
+    }
+
+    private final Path file;
+    private final Set<String> tables;
+
+    private DbSnapshot(Path file, Set<String> tables) {
+        this.file = file;
+        this.tables = tables;
+    }
+
+    /**
+     * @return true if tests should start from the golden snapshot (db.snapshot.restore=true).
+     */
+    public static boolean isRestoreEnabled() {
+        return TestConfig.getBoolean("db.snapshot.restore", false);
+    }
+
+    /**
+     * Copy a database into a new snapshot file.
+     *
+     * @param dbPath The database to copy.
+     * @return The snapshot. Close it to delete the file.
+     * @throws SQLException If the backup fails.
+     */
+    public static DbSnapshot take(String dbPath) throws SQLException {
+        Path file;
+        try {
+            file = Files.createTempFile("shop-snapshot-", ".db");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long start = System.nanoTime();
+        Set<String> tables = DbConnectionPool.withConnection(dbPath, conn -> {
+            Set<String> names = new LinkedHashSet<>();
+            try (Statement stmt = conn.jdbc().createStatement()) {
+                stmt.executeUpdate("backup to " + quote(file.toString()));
+                try (ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table'")) {
+                    while (rs.next()) {
+                        names.add(rs.getString(1));
+                    }
+                }
+            }
+            return Set.copyOf(names);
+        });
+        DbSnapshot snapshot = new DbSnapshot(file, tables);
+        System.out.println("📸 DB snapshot of " + dbPath + " taken in " + millisSince(start) + " ms");
+        return snapshot;
+    }
+
+    /**
+     * The run's golden snapshot of a database, taken on first request.
+     *
+     * @param dbPath The database.
+     * @return The shared snapshot (do not close it; it is deleted at exit).
+     * @throws SQLException If the first backup fails.
+     */
+    public static DbSnapshot golden(String dbPath) throws SQLException {
+        DbSnapshot existing = GOLDEN.get(dbPath);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (GOLDEN) {
+            existing = GOLDEN.get(dbPath);
+            if (existing == null) {
+                existing = take(dbPath);
+                GOLDEN.put(dbPath, existing);
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * @return The snapshot file.
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Restore the whole database to this snapshot.
+     *
+     * @param dbPath The live database to overwrite.
+     * @throws SQLException If the restore or the integrity check fails.
+     */
+    public void restore(String dbPath) throws SQLException {
+        long start = System.nanoTime();
+        DbConnectionPool.withConnection(dbPath, conn -> {
+            try (Statement stmt = conn.jdbc().createStatement()) {
+                stmt.executeUpdate("restore from " + quote(file.toString()));
+            }
+            checkIntegrity(conn.jdbc(), dbPath);
+            return null;
+        });
+        System.out.println("♻️ DB restored from snapshot in " + millisSince(start) + " ms: " + dbPath);
+    }
+
+    /**
+     * Restore selected tables to this snapshot; other tables are left as they are.
+     *
+     * @param dbPath The live database.
+     * @param tableNames The tables to bring back (e.g., "cart", "items").
+     * @throws SQLException If a table is unknown, the copy fails (nothing is changed),
+     *                      or the integrity check fails.
+     */
+    public void restore(String dbPath, String... tableNames) throws SQLException {
+        Set<String> selected = new LinkedHashSet<>(List.of(tableNames));
+        for (String table : selected) {
+            if (!tables.contains(table)) {
+                throw new IllegalArgumentException("Table '" + table + "' is not in the snapshot " + tables);
+            }
+        }
+        long start = System.nanoTime();
+        DbConnectionPool.withConnection(dbPath, conn -> {
+            Connection jdbc = conn.jdbc();
+            try (Statement stmt = jdbc.createStatement()) {
+                stmt.execute("ATTACH DATABASE '" + file.toString().replace("'", "''") + "' AS snapshot");
+                try {
+                    jdbc.setAutoCommit(false);
+                    try {
+                        for (String table : selected) {
+                            stmt.executeUpdate("DELETE FROM main." + quote(table));
+                            stmt.executeUpdate("INSERT INTO main." + quote(table)
+                                + " SELECT * FROM snapshot." + quote(table));
+                        }
+                        jdbc.commit();
+                    } catch (SQLException e) {
+                        jdbc.rollback();
+                        throw e;
+                    } finally {
+                        jdbc.setAutoCommit(true);
+                    }
+                } finally {
+                    stmt.execute("DETACH DATABASE snapshot");
+                }
+            }
+            checkIntegrity(jdbc, dbPath);
+            return null;
+        });
+        System.out.println("♻️ Tables " + selected + " restored from snapshot in " + millisSince(start) + " ms");
+    }
+
+    /**
+     * Delete the snapshot file.
+     */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not delete DB snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void checkIntegrity(Connection jdbc, String dbPath) throws SQLException {
+        String pragma = switch (INTEGRITY_CHECK) {
+            case "off" -> null;
+            case "full" -> "PRAGMA integrity_check";
+            default -> "PRAGMA quick_check";
+        };
+        if (pragma == null) {
+            return;
+        }
+        try (Statement stmt = jdbc.createStatement(); ResultSet rs = stmt.executeQuery(pragma)) {
+            String result = rs.next() ? rs.getString(1) : "no result";
+            if (!"ok".equals(result)) {
+                throw new SQLException("Integrity check failed after restore of " + dbPath + ": " + result);
+            }
+        }
+    }
+
+    /**
+     * Double-quote an identifier or file name for SQLite (and sqlite-jdbc's backup/restore commands).
+     */
+    private static String quote(String name) {
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
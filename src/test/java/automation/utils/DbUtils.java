@@ -1,33 +1,83 @@
 package automation.utils;
 
+import automation.db.generated.CartTable;
+import automation.db.generated.ItemsTable;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Database utility class for interacting with the SQLite shop.db.
  * 
  * Ported from e2e-playwright/utils/dbHelpers.py.
  * Uses standard Java SQL (java.sql.Connection, DriverManager, ResultSet).
+ * 
+ * Queries run on pooled connections with cached prepared statements
+ * (see DbConnectionPool), so repeated checks skip the file open and SQL parse.
+ * Reads use read-only connections and writes use full-access ones. Their
+ * settings (busy_timeout, mmap_size, query_only, journal mode) are described in DbProfile.
+ * 
+ * Prefer the typed API (query/queryOne with a RowMapper, fetchInt, fetchString)
+ * over fetchOne/fetchAll: rows map straight into records or primitives, column
+ * indexes are resolved once per query, and no Map is built per row.
+ * For large tables, stream/forEach walk the rows in constant memory.
+ * For shop.db's own tables, the generated classes in automation.db.generated
+ * (ItemsTable, CartTable) provide typed rows and fixed queries. The helpers
+ * below build on their table/column constants, SELECT and MAPPER only, not on
+ * the by-primary-key methods, so they compile against any primary key.
+ * 
+ * With db.replica=true, the non-streaming reads are served from an in-memory
+ * copy of the database that is refreshed when the source changes (see DbReplica).
+ * 
+ * Checks that follow a UI step should use the await methods (awaitCartQuantity,
+ * awaitInt, await): the app commits asynchronously, so a single read may run
+ * before the write has landed. An await holds one connection and re-runs its
+ * query only when PRAGMA data_version shows that another connection committed.
+ * 
+ * Config (config.properties or -D):
+ *   db.fetchSize       - rows per fetch hint for streaming queries (default 1000)
+ *   db.batch.chunkSize - parameter sets per executeBatch call in batch writes (default 500)
+ *   db.await.pollMillis - interval between data_version checks while awaiting (default 2)
  */
 public class DbUtils {
 
+    private static final int FETCH_SIZE = Math.max(0, TestConfig.getInt("db.fetchSize", 1000));
+    private static final int BATCH_CHUNK_SIZE = Math.max(1, TestConfig.getInt("db.batch.chunkSize", 500));
+    private static final long AWAIT_POLL_NANOS =
+        Math.max(1, TestConfig.getInt("db.await.pollMillis", 2)) * 1_000_000L;
+
+    private static final String ITEM_BY_ID = ItemsTable.SELECT + " WHERE " + ItemsTable.ID + " = ?";
+    private static final String ITEMS_BY_ID = ItemsTable.SELECT + " ORDER BY " + ItemsTable.ID;
+    private static final String CART_BY_ITEM_ID = CartTable.SELECT + " WHERE " + CartTable.ITEM_ID + " = ?";
+    private static final String CART_BY_ITEM = CartTable.SELECT + " ORDER BY " + CartTable.ITEM_ID;
+    private static final String CART_TOTAL =
+        "SELECT SUM(" + CartTable.QUANTITY + ") AS total FROM " + CartTable.TABLE;
+
     /**
      * Establish a new SQLite connection to the given database path.
+     * Not pooled: the caller owns (and must close) the connection.
      * 
      * @param dbPath The absolute or relative path to shop.db (e.g., "C:/Users/.../shop.db")
      * @return A new SQLite Connection.
      * @throws SQLException If the connection fails.
      */
     public static Connection getConnection(String dbPath) throws SQLException {
-        String jdbcUrl = "jdbc:sqlite:" + dbPath;
-        return DriverManager.getConnection(jdbcUrl);
+        return DbProfile.open(dbPath, DbProfile.Access.WRITE);
     }
 
     /**
@@ -43,22 +93,15 @@ public class DbUtils {
      */
     public static Map<String, Object> fetchOne(String dbPath, String query, Object... params) 
             throws SQLException {
-        try (Connection conn = getConnection(dbPath);
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            // Bind parameters
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
             
             // Execute and retrieve first row
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return resultSetToMap(rs);
-                }
+                return rs.next() ? resultSetToMap(rs, columnNames(rs)) : null;
             }
-        }
-        return null;
+        });
     }
 
     /**
@@ -74,24 +117,247 @@ public class DbUtils {
      */
     public static List<Map<String, Object>> fetchAll(String dbPath, String query, Object... params) 
             throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        
-        try (Connection conn = getConnection(dbPath);
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
             
-            // Bind parameters
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
+            // Execute and collect all rows
+            List<Map<String, Object>> results = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                String[] columns = columnNames(rs);
+                while (rs.next()) {
+                    results.add(resultSetToMap(rs, columns));
+                }
             }
+            return results;
+        });
+    }
+
+    /**
+     * Execute a SELECT query and map every row with a RowMapper.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT statement with optional ? placeholders.
+     * @param mapper Maps one row (e.g., ItemsTable.MAPPER, CartTable.MAPPER).
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The mapped rows, in result order. Empty list if no rows found.
+     * @throws SQLException If the query fails.
+     */
+    public static <T> List<T> query(String dbPath, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
             
-            // Execute and collect all rows
+            List<T> results = new ArrayList<>();
             try (ResultSet rs = pstmt.executeQuery()) {
+                DbRow row = new DbRow(rs);
                 while (rs.next()) {
-                    results.add(resultSetToMap(rs));
+                    results.add(mapper.map(row));
                 }
             }
+            return results;
+        });
+    }
+
+    /**
+     * Execute a SELECT query and map the first row with a RowMapper.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT statement with optional ? placeholders.
+     * @param mapper Maps one row.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The mapped first row, or null if no rows found.
+     * @throws SQLException If the query fails.
+     */
+    public static <T> T queryOne(String dbPath, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapper.map(new DbRow(rs)) : null;
+            }
+        });
+    }
+
+    /**
+     * Execute a SELECT query and return its rows as a lazily read Stream, in constant memory.
+     * 
+     * The stream holds a pooled connection and an open cursor until it is closed,
+     * so always use try-with-resources:
+     * 
+     *   try (Stream<ItemsTable.Row> items = DbUtils.stream(dbPath, ItemsTable.SELECT, ItemsTable.MAPPER)) {
+     *       long count = items.count();
+     *   }
+     * 
+     * It is also released as soon as the last row has been read. A failure while
+     * reading surfaces as an IllegalStateException wrapping the SQLException.
+     * The fetch size (db.fetchSize) is a hint: SQLite steps the cursor natively
+     * and never buffers the result, other drivers fetch in batches of that size.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT statement with optional ? placeholders.
+     * @param mapper Maps one row.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return A sequential, ordered stream of mapped rows. Must be closed.
+     * @throws SQLException If the query cannot be started.
+     */
+    public static <T> Stream<T> stream(String dbPath, String query, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        DbConnectionPool.Lease lease = DbConnectionPool.lease(dbPath, DbProfile.Access.READ);
+        try {
+            PreparedStatement pstmt = lease.connection().prepare(query);
+            bind(pstmt, params);
+            pstmt.setFetchSize(FETCH_SIZE);
+            Cursor<T> cursor = new Cursor<>(lease, pstmt.executeQuery(), mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Execute a SELECT query and pass every mapped row to a callback, in constant memory.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT statement with optional ? placeholders.
+     * @param mapper Maps one row.
+     * @param action Called once per row, in result order.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The number of rows visited.
+     * @throws SQLException If the query fails.
+     */
+    public static <T> long forEach(String dbPath, String query, RowMapper<T> mapper,
+                                   Consumer<? super T> action, Object... params) throws SQLException {
+        long[] count = {0};
+        try (Stream<T> rows = stream(dbPath, query, mapper, params)) {
+            rows.forEach(value -> {
+                action.accept(value);
+                count[0]++;
+            });
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof SQLException sqlError) {
+                throw sqlError;
+            }
+            throw e;
         }
-        return results;
+        return count[0];
+    }
+
+    /**
+     * Execute a single-value query and return the first column of the first row as an int.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT returning one value (e.g., SELECT COUNT(*) ...).
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The value, or 0 if no rows were found or the value is SQL NULL.
+     * @throws SQLException If the query fails.
+     */
+    public static int fetchInt(String dbPath, String query, Object... params) throws SQLException {
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        });
+    }
+
+    /**
+     * Execute a single-value query and return the first column of the first row as a String.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT returning one value.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The value, or null if no rows were found or the value is SQL NULL.
+     * @throws SQLException If the query fails.
+     */
+    public static String fetchString(String dbPath, String query, Object... params) throws SQLException {
+        return withReadConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        });
+    }
+
+    /**
+     * Wait until a query's first row satisfies a condition, re-running the query
+     * only when the database has changed.
+     * 
+     * The query runs once straight away. While the condition is not met, one held
+     * connection checks PRAGMA data_version every db.await.pollMillis. That is a
+     * header read, not a query, and its value changes only when another connection
+     * (e.g., the app) commits. Only then is the query run again. Reads always go to
+     * the database file, never to the replica, so a commit is seen as soon as it lands.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT statement with optional ? placeholders.
+     * @param mapper Maps the first row.
+     * @param condition Tested against the mapped first row (null if there are no rows).
+     * @param timeout Maximum time to wait.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @return The first value that satisfied the condition.
+     * @throws AssertionError If the condition is not met in time (the message shows the last value).
+     * @throws SQLException If the query fails.
+     */
+    public static <T> T await(String dbPath, String query, RowMapper<T> mapper,
+                              Predicate<? super T> condition, Duration timeout, Object... params)
+            throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        return DbConnectionPool.withReadConnection(dbPath, conn -> {
+            int queries = 0;
+            while (true) {
+                // Version first: a commit landing during the query is caught by the next check
+                long version = fetchVersion(conn);
+                PreparedStatement pstmt = conn.prepare(query);
+                bind(pstmt, params);
+                T value;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    value = rs.next() ? mapper.map(new DbRow(rs)) : null;
+                }
+                queries++;
+                if (condition.test(value)) {
+                    if (queries > 1) {
+                        System.out.println("🗄️ DB condition met after " + (System.nanoTime() - start) / 1_000_000
+                            + " ms (" + queries + " queries)");
+                    }
+                    return value;
+                }
+                while (fetchVersion(conn) == version) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new AssertionError("DB condition not met within " + timeout.toMillis()
+                            + " ms; last value " + value + " from: " + query);
+                    }
+                    LockSupport.parkNanos(Math.min(AWAIT_POLL_NANOS, remaining));
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait until a single-value query returns the expected int (no rows and SQL NULL count as 0, as in fetchInt).
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL SELECT returning one value.
+     * @param expected The value to wait for.
+     * @param timeout Maximum time to wait.
+     * @param params Query parameters (in order matching ? placeholders). Can be empty.
+     * @throws AssertionError If the value does not appear in time.
+     * @throws SQLException If the query fails.
+     */
+    public static void awaitInt(String dbPath, String query, int expected, Duration timeout, Object... params)
+            throws SQLException {
+        await(dbPath, query, row -> row.getInt(1), value -> (value == null ? 0 : value) == expected,
+            timeout, params);
     }
 
     /**
@@ -106,17 +372,86 @@ public class DbUtils {
      */
     public static void executeQuery(String dbPath, String query, Object... params) 
             throws SQLException {
-        try (Connection conn = getConnection(dbPath);
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            
-            // Bind parameters
-            for (int i = 0; i < params.length; i++) {
-                pstmt.setObject(i + 1, params[i]);
-            }
+        DbConnectionPool.withConnection(dbPath, conn -> {
+            PreparedStatement pstmt = conn.prepare(query);
+            bind(pstmt, params);
             
-            // Execute and commit (auto-commit enabled by default)
-            pstmt.executeUpdate();
+            // Execute and commit (pooled connections stay in auto-commit mode)
+            return pstmt.executeUpdate();
+        });
+    }
+
+    /**
+     * Execute one write statement for many parameter sets, in a single transaction.
+     * 
+     * The parameter sets are sent with addBatch/executeBatch in chunks of
+     * db.batch.chunkSize, and everything is committed once at the end, so seeding
+     * N rows costs one transaction (one fsync) instead of N. If any statement
+     * fails, the whole batch is rolled back.
+     * 
+     * Example:
+     *   DbUtils.executeBatch(dbPath, "INSERT INTO cart (item_id, quantity) VALUES (?, ?)",
+     *       List.of(new Object[] {1, 2}, new Object[] {3, 1}));
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param query SQL INSERT/UPDATE/DELETE statement with ? placeholders.
+     * @param paramSets One parameter array per execution (in order matching ? placeholders).
+     * @return The total number of rows affected.
+     * @throws SQLException If any statement fails (nothing is written).
+     */
+    public static int executeBatch(String dbPath, String query, List<Object[]> paramSets)
+            throws SQLException {
+        return executeBatch(dbPath, null, query, paramSets);
+    }
+
+    /**
+     * Like {@link #executeBatch(String, String, List)}, but first runs a parameterless
+     * statement in the same transaction (e.g., "DELETE FROM cart" before re-seeding it),
+     * so other connections see either the old rows or the new ones, never the gap.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param before Statement to run first, or null for none.
+     * @param query SQL INSERT/UPDATE/DELETE statement with ? placeholders.
+     * @param paramSets One parameter array per execution; may be empty.
+     * @return The total number of rows affected by {@code query}.
+     * @throws SQLException If any statement fails (nothing is written).
+     */
+    static int executeBatch(String dbPath, String before, String query, List<Object[]> paramSets)
+            throws SQLException {
+        if (before == null && paramSets.isEmpty()) {
+            return 0;
         }
+        return DbConnectionPool.withConnection(dbPath, conn -> {
+            Connection jdbc = conn.jdbc();
+            jdbc.setAutoCommit(false);
+            try {
+                if (before != null) {
+                    conn.prepare(before).executeUpdate();
+                }
+                PreparedStatement pstmt = conn.prepare(query);
+                int affected = 0;
+                int pending = 0;
+                for (Object[] params : paramSets) {
+                    bind(pstmt, params);
+                    pstmt.addBatch();
+                    if (++pending == BATCH_CHUNK_SIZE) {
+                        affected += sum(pstmt.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    affected += sum(pstmt.executeBatch());
+                }
+                jdbc.commit();
+                return affected;
+            } catch (SQLException | RuntimeException e) {
+                // The connection is discarded after a failure, so no batch state survives
+                jdbc.rollback();
+                throw e;
+            } finally {
+                jdbc.setAutoCommit(true);
+            }
+        });
     }
 
     /**
@@ -143,21 +478,50 @@ public class DbUtils {
      * @throws SQLException If the query fails.
      */
     public static int getCartQuantity(String dbPath, int itemId) throws SQLException {
-        Map<String, Object> row = fetchOne(
-            dbPath, 
-            "SELECT quantity FROM cart WHERE item_id = ?", 
-            itemId
-        );
-        
-        if (row != null && row.containsKey("quantity")) {
-            Object qty = row.get("quantity");
-            if (qty instanceof Integer) {
-                return (Integer) qty;
-            } else if (qty instanceof Long) {
-                return ((Long) qty).intValue();
-            }
-        }
-        return 0;
+        CartTable.Row row = queryOne(dbPath, CART_BY_ITEM_ID, CartTable.MAPPER, itemId);
+        return row == null ? 0 : row.quantity();
+    }
+
+    /**
+     * Wait until the cart holds exactly the expected quantity of an item (0 = not in the cart).
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param itemId The ID of the item.
+     * @param expected The quantity to wait for.
+     * @param timeout Maximum time to wait.
+     * @throws AssertionError If the quantity is not reached in time.
+     * @throws SQLException If the query fails.
+     */
+    public static void awaitCartQuantity(String dbPath, int itemId, int expected, Duration timeout)
+            throws SQLException {
+        await(dbPath, CART_BY_ITEM_ID, CartTable.MAPPER,
+            row -> (row == null ? 0 : row.quantity()) == expected, timeout, itemId);
+    }
+
+    /**
+     * Wait until the cart holds exactly the expected quantity of an item, within the default wait timeout.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param itemId The ID of the item.
+     * @param expected The quantity to wait for.
+     * @throws AssertionError If the quantity is not reached in time.
+     * @throws SQLException If the query fails.
+     */
+    public static void awaitCartQuantity(String dbPath, int itemId, int expected) throws SQLException {
+        awaitCartQuantity(dbPath, itemId, expected, WaitPolicy.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Wait until the sum of all cart quantities equals the expected total.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @param expected The total to wait for (0 = empty cart).
+     * @param timeout Maximum time to wait.
+     * @throws AssertionError If the total is not reached in time.
+     * @throws SQLException If the query fails.
+     */
+    public static void awaitCartTotal(String dbPath, int expected, Duration timeout) throws SQLException {
+        awaitInt(dbPath, CART_TOTAL, expected, timeout);
     }
 
     /**
@@ -171,16 +535,8 @@ public class DbUtils {
      * @throws SQLException If the query fails.
      */
     public static String getItemName(String dbPath, int itemId) throws SQLException {
-        Map<String, Object> row = fetchOne(
-            dbPath, 
-            "SELECT name FROM items WHERE id = ?", 
-            itemId
-        );
-        
-        if (row != null && row.containsKey("name")) {
-            return (String) row.get("name");
-        }
-        return null;
+        ItemsTable.Row row = queryOne(dbPath, ITEM_BY_ID, ItemsTable.MAPPER, itemId);
+        return row == null ? null : row.name();
     }
 
     /**
@@ -193,20 +549,143 @@ public class DbUtils {
      * @throws SQLException If the query fails.
      */
     public static int getCartTotal(String dbPath) throws SQLException {
-        Map<String, Object> row = fetchOne(
-            dbPath, 
-            "SELECT SUM(quantity) AS total FROM cart"
-        );
-        
-        if (row != null && row.containsKey("total")) {
-            Object total = row.get("total");
-            if (total instanceof Integer) {
-                return (Integer) total;
-            } else if (total instanceof Long) {
-                return ((Long) total).intValue();
+        return fetchInt(dbPath, CART_TOTAL);
+    }
+
+    /**
+     * Return the whole catalog.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @return All items, ordered by ID.
+     * @throws SQLException If the query fails.
+     */
+    public static List<ItemsTable.Row> getItems(String dbPath) throws SQLException {
+        return query(dbPath, ITEMS_BY_ID, ItemsTable.MAPPER);
+    }
+
+    /**
+     * Return the cart contents as stored.
+     * 
+     * @param dbPath The absolute or relative path to shop.db.
+     * @return All cart rows, ordered by item ID. Empty list if the cart is empty.
+     * @throws SQLException If the query fails.
+     */
+    public static List<CartTable.Row> getCartItems(String dbPath) throws SQLException {
+        return query(dbPath, CART_BY_ITEM, CartTable.MAPPER);
+    }
+
+    /**
+     * Release pooled connections to a database that is about to be deleted
+     * (e.g., a per-worker app instance shutting down).
+     * 
+     * @param dbPath The absolute or relative path to the database.
+     */
+    public static void closeConnections(String dbPath) {
+        DbReplica.close(dbPath);
+        DbConnectionPool.close(dbPath);
+    }
+
+    /**
+     * Run a read on the in-memory replica (db.replica=true) or on a pooled read-only source connection.
+     */
+    private static <T> T withReadConnection(String dbPath, DbConnectionPool.SqlWork<T> work) throws SQLException {
+        return DbReplica.isEnabled()
+            ? DbReplica.read(dbPath, work)
+            : DbConnectionPool.withReadConnection(dbPath, work);
+    }
+
+    /**
+     * Read PRAGMA data_version: the same value on the same connection until another connection commits.
+     */
+    private static long fetchVersion(DbConnectionPool.PooledConnection conn) throws SQLException {
+        try (ResultSet rs = conn.prepare("PRAGMA data_version").executeQuery()) {
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Total rows affected by an executeBatch result (drivers may report SUCCESS_NO_INFO).
+     */
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(0, count);
+        }
+        return total;
+    }
+
+    /**
+     * Bind positional parameters to a (possibly reused) statement.
+     */
+    private static void bind(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    /**
+     * Open cursor behind {@link #stream}: reads one row per tryAdvance, and returns
+     * the connection to the pool when closed or exhausted (or discards it after an error).
+     */
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final DbConnectionPool.Lease lease;
+        private final ResultSet rs;
+        private final DbRow row;
+        private final RowMapper<T> mapper;
+        private boolean failed;
+
+        private Cursor(DbConnectionPool.Lease lease, ResultSet rs, RowMapper<T> mapper) throws SQLException {
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.lease = lease;
+            this.rs = rs;
+            this.row = new DbRow(rs);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (!rs.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(mapper.map(row));
+                return true;
+            } catch (SQLException e) {
+                failed = true;
+                close();
+                throw new IllegalStateException("Failed to read row: " + e.getMessage(), e);
+            }
+        }
+
+        private void close() {
+            try {
+                rs.close();
+                if (!failed) {
+                    lease.healthy();
+                }
+            } catch (SQLException e) {
+                // Connection is discarded instead of pooled
+            } finally {
+                lease.close();
             }
         }
-        return 0;
+    }
+
+    /**
+     * Read the column names of a result once, before iterating its rows.
+     * 
+     * @param rs The ResultSet.
+     * @return Column names by 0-based position.
+     * @throws SQLException If metadata retrieval fails.
+     */
+    private static String[] columnNames(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        String[] names = new String[meta.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = meta.getColumnName(i + 1);
+        }
+        return names;
     }
 
     /**
@@ -215,19 +694,15 @@ public class DbUtils {
      * Helper method used internally by fetchOne/fetchAll.
      * 
      * @param rs The ResultSet positioned at a valid row.
+     * @param columns The result's column names (see columnNames).
      * @return A Map with column name → value (as Object).
-     * @throws SQLException If metadata retrieval fails.
+     * @throws SQLException If a value cannot be read.
      */
-    private static Map<String, Object> resultSetToMap(ResultSet rs) throws SQLException {
-        Map<String, Object> map = new HashMap<>();
-        int columnCount = rs.getMetaData().getColumnCount();
-        
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = rs.getMetaData().getColumnName(i);
-            Object value = rs.getObject(i);
-            map.put(columnName, value);
+    private static Map<String, Object> resultSetToMap(ResultSet rs, String[] columns) throws SQLException {
+        Map<String, Object> map = new HashMap<>(columns.length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            map.put(columns[i], rs.getObject(i + 1));
         }
-        
         return map;
     }
 }
@@ -0,0 +1,180 @@
+package automation.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event-driven DOM waits: one WebDriver round-trip per wait instead of a polling loop.
+ *
+ * The wait installs a MutationObserver in the page through executeAsyncScript and
+ * resolves the moment a JavaScript predicate holds (or when the timeout fires).
+ * The predicate is re-evaluated on every DOM mutation, on transitionend and
+ * animationend (visibility can change without a mutation), and on a 250 ms
+ * in-page safety tick. None of those cost a chromedriver round-trip.
+ *
+ * If the page navigates while a wait is pending, the script is torn down with
+ * the old document. The wait is then re-installed on the new document until the
+ * overall timeout is spent.
+ */
+public final class DomWait {
+
+    /**
+     * Async wrapper around a predicate body. Arguments: predicate source, timeout ms, predicate args, callback.
+     * Resolves with {ok: true, value: <predicate result>} or {ok: false} on timeout.
+     */
+    private static final String OBSERVER_SCRIPT = String.join("\n",
+        "var predicate = new Function('args', arguments[0]);",
+        "var timeoutMs = arguments[1];",
+        "var args = arguments[2];",
+        "var done = arguments[arguments.length - 1];",
+        "var finished = false, observer, timer, tick;",
+        "function finish(result) {",
+        "  if (finished) { return; }",
+        "  finished = true;",
+        "  if (observer) { observer.disconnect(); }",
+        "  clearTimeout(timer);",
+        "  clearInterval(tick);",
+        "  document.removeEventListener('transitionend', check, true);",
+        "  document.removeEventListener('animationend', check, true);",
+        "  done(result);",
+        "}",
+        "function check() {",
+        "  var value;",
+        "  try { value = predicate(args); } catch (e) { return; }",
+        "  if (value) { finish({ ok: true, value: value }); }",
+        "}",
+        "observer = new MutationObserver(check);",
+        "observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });",
+        "document.addEventListener('transitionend', check, true);",
+        "document.addEventListener('animationend', check, true);",
+        "tick = setInterval(check, 250);",
+        // Native timer: AnimationSuppression scales page setTimeout delays, not ours
+        "timer = (window.__e2eNativeSetTimeout || setTimeout)(function () { finish({ ok: false }); }, timeoutMs);",
+        "check();"
+    );
+
+    /** Shared visibility test, close to Selenium's isDisplayed() for ordinary elements. */
+    private static final String IS_VISIBLE_FN =
+        "function isVisible(el) {"
+            + " if (!el || !el.isConnected || el.getClientRects().length === 0) { return false; }"
+            + " var style = getComputedStyle(el);"
+            + " return style.visibility !== 'hidden' && parseFloat(style.opacity) > 0;"
+            + " }";
+
+    private DomWait() {
+    }
+
+    /**
+     * Wait until a JavaScript predicate returns a truthy value.
+     *
+     * The predicate is a function body that receives {@code args} (the varargs below)
+     * and returns a truthy value when the condition holds. Whatever it returns is
+     * passed back (strings, numbers, booleans, elements as WebElement).
+     *
+     * @param driver The WebDriver (must support JavascriptExecutor).
+     * @param predicateBody JavaScript function body, e.g. "return document.title === args[0];"
+     * @param timeout Maximum time to wait.
+     * @param args Values exposed to the predicate as args[0], args[1], ...
+     * @return The predicate's truthy result.
+     * @throws TimeoutException If the predicate does not hold within the timeout.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T until(WebDriver driver, String predicateBody, Duration timeout, Object... args) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        WebDriverException lastError = null;
+
+        while (true) {
+            long remainingMillis = Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+            try {
+                Object result = js.executeAsyncScript(OBSERVER_SCRIPT, predicateBody, remainingMillis, List.of(args));
+                if (result instanceof Map<?, ?> map && Boolean.TRUE.equals(map.get("ok"))) {
+                    return (T) map.get("value");
+                }
+                lastError = null;
+            } catch (ScriptTimeoutException e) {
+                lastError = e;
+            } catch (TimeoutException e) {
+                throw e;
+            } catch (WebDriverException e) {
+                // Most likely the document was replaced by a navigation; re-install on the new one
+                lastError = e;
+                pause();
+            }
+
+            if (System.nanoTime() >= deadline) {
+                throw new TimeoutException(
+                    "DOM condition not met within " + timeout.toMillis() + " ms: " + predicateBody.strip(),
+                    lastError
+                );
+            }
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException(e);
+        }
+    }
+
+    /**
+     * Wait until the first element matching a CSS selector is visible.
+     *
+     * @param driver The WebDriver.
+     * @param cssSelector CSS selector of the element.
+     * @param timeout Maximum time to wait.
+     * @return The element's visible text (innerText).
+     */
+    public static String untilVisible(WebDriver driver, String cssSelector, Duration timeout) {
+        Object text = until(driver,
+            IS_VISIBLE_FN
+                + " var el = document.querySelector(args[0]);"
+                + " return isVisible(el) ? (el.innerText || ' ') : false;",
+            timeout, cssSelector);
+        return String.valueOf(text).strip();
+    }
+
+    /**
+     * Wait until no element matching a CSS selector is visible (absent elements count as hidden).
+     *
+     * @param driver The WebDriver.
+     * @param cssSelector CSS selector of the element(s).
+     * @param timeout Maximum time to wait.
+     */
+    public static void untilHidden(WebDriver driver, String cssSelector, Duration timeout) {
+        until(driver,
+            IS_VISIBLE_FN
+                + " return Array.prototype.every.call(document.querySelectorAll(args[0]),"
+                + " function (el) { return !isVisible(el); });",
+            timeout, cssSelector);
+    }
+
+    /**
+     * Wait until the text of the first element matching a CSS selector differs from a previous value.
+     *
+     * @param driver The WebDriver.
+     * @param cssSelector CSS selector of the element.
+     * @param oldText The text the element had before the change.
+     * @param timeout Maximum time to wait.
+     * @return The element's new text.
+     */
+    public static String untilTextChanges(WebDriver driver, String cssSelector, String oldText, Duration timeout) {
+        Object text = until(driver,
+            "var el = document.querySelector(args[0]);"
+                + " if (!el) { return false; }"
+                + " var text = el.innerText.trim();"
+                + " return text !== args[1] ? (text || ' ') : false;",
+            timeout, cssSelector, oldText.strip());
+        return String.valueOf(text).strip();
+    }
+}
@@ -0,0 +1,279 @@
+package automation.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Pool of warm ChromeDriver sessions shared across tests.
+ *
+ * Launching and quitting Chrome costs 1-3 seconds, so instead of a fresh browser
+ * per test, sessions are leased with {@link #acquire()} and handed back with
+ * {@link #release(WebDriver)}. A returned session is reset (extra tabs, cookies,
+ * localStorage, sessionStorage, current URL) before anyone else can lease it.
+ * Persistent storage (localStorage, IndexedDB, caches, service workers) is
+ * cleared over CDP for every origin in the tabs' history, not just the current
+ * page, so a test that visited another app instance's port leaves nothing behind.
+ *
+ * A session is recycled (quit and replaced on the next lease) when:
+ *   - it has been leased driver.pool.maxUses times (default 25), or
+ *   - it fails the reset or the liveness check on lease.
+ *
+ * Idle sessions are quit by a JVM shutdown hook at the end of the run.
+ */
+public final class DriverPool {
+
+    /** Number of leases before a session is recycled. Set to 1 to disable reuse. */
+    private static final int MAX_USES = Math.max(1, TestConfig.getInt("driver.pool.maxUses", 25));
+
+    /** Upper bound on idle sessions kept warm between tests (defaults to one per parallel worker). */
+    private static final int MAX_IDLE = Math.max(0, TestConfig.getInt(
+        "driver.pool.maxIdle", Runtime.getRuntime().availableProcessors()));
+
+    /** Storage.clearDataForOrigin types: everything an origin persists, except cookies (cleared separately). */
+    private static final String STORAGE_TYPES =
+        "local_storage,indexeddb,websql,file_systems,cache_storage,service_workers";
+
+    private static final Deque<PooledDriver> IDLE = new ConcurrentLinkedDeque<>();
+    private static final Map<WebDriver, PooledDriver> LEASED = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+    }
+
+    private DriverPool() {
+    }
+
+    /**
+     * A browser session plus its lease counter.
+     * Only ever touched by the thread that currently holds the lease.
+     */
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+
+    /**
+     * Lease a browser session, reusing an idle one when possible.
+     *
+     * @return A clean WebDriver positioned on about:blank.
+     */
+    public static WebDriver acquire() {
+        PooledDriver pooled;
+        while ((pooled = IDLE.pollFirst()) != null) {
+            if (isResponsive(pooled.driver)) {
+                break;
+            }
+            System.err.println("⚠️ Pooled browser stopped responding. Recycling it.");
+            quietlyQuit(pooled.driver);
+        }
+
+        if (pooled == null) {
+            pooled = new PooledDriver(createDriver());
+            System.out.println("✅ Browser launched (pool miss)");
+        } else {
+            System.out.println("♻️ Browser reused from pool (use " + (pooled.uses + 1) + "/" + MAX_USES + ")");
+        }
+
+        pooled.uses++;
+        LEASED.put(pooled.driver, pooled);
+        return pooled.driver;
+    }
+
+    /**
+     * Return a leased session to the pool.
+     * The session is reset first; if the reset fails or the session is used up, it is quit instead.
+     *
+     * @param driver The driver previously obtained from {@link #acquire()}.
+     */
+    public static void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        PooledDriver pooled = LEASED.remove(driver);
+        if (pooled == null) {
+            // Not ours (or already discarded) - don't leak the process.
+            quietlyQuit(driver);
+            return;
+        }
+
+        if (pooled.uses >= MAX_USES) {
+            quietlyQuit(driver);
+            System.out.println("♻️ Browser retired after " + pooled.uses + " uses");
+        } else if (IDLE.size() >= MAX_IDLE || !reset(driver)) {
+            quietlyQuit(driver);
+        } else {
+            IDLE.offerFirst(pooled);
+        }
+    }
+
+    /**
+     * Quit a leased session instead of returning it (e.g. after a test crashed the browser).
+     *
+     * @param driver The driver previously obtained from {@link #acquire()}.
+     */
+    public static void discard(WebDriver driver) {
+        if (driver != null) {
+            LEASED.remove(driver);
+            quietlyQuit(driver);
+        }
+    }
+
+    /**
+     * Build a new ChromeDriver (headless in CI, headed for local debugging).
+     */
+    private static WebDriver createDriver() {
+        ChromeOptions options = new ChromeOptions();
+
+        // Check if running in CI (via Maven flag or GitHub Actions environment)
+        String headlessProp = System.getProperty("headless");
+        String ciEnv = System.getenv("CI");
+
+        if ("true".equalsIgnoreCase(headlessProp) || ciEnv != null) {
+            options.addArguments("--headless");
+        }
+
+        // Additional options for stability
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+
+        // Initialize ChromeDriver (Selenium 4.6+ manages chromedriver automatically)
+        WebDriver driver = new ChromeDriver(options);
+
+        // Implicit waits stay off: all waiting is explicit (see WaitPolicy)
+        driver.manage().timeouts().implicitlyWait(WaitPolicy.IMPLICIT_WAIT);
+        driver.manage().timeouts().scriptTimeout(WaitPolicy.SCRIPT_TIMEOUT);
+        return driver;
+    }
+
+    /**
+     * Bring a session back to a blank state: one tab, no cookies, no web storage, about:blank.
+     *
+     * @return true if the session is clean and can be reused.
+     */
+    private static boolean reset(WebDriver driver) {
+        try {
+            // 1. Close every tab except the first one, noting the origins each tab visited
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            Set<String> origins = new LinkedHashSet<>();
+            for (String handle : handles.subList(1, handles.size())) {
+                driver.switchTo().window(handle);
+                origins.addAll(visitedOrigins(driver));
+                driver.close();
+            }
+            driver.switchTo().window(handles.get(0));
+            origins.addAll(visitedOrigins(driver));
+
+            // 2. Web storage of the current origin (the only one reachable without CDP)
+            ((JavascriptExecutor) driver).executeScript(
+                "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}"
+            );
+
+            // 3. Cookies and storage of every visited origin (e.g., other app instance ports):
+            //    CDP clears every origin; deleteAllCookies only covers the current one
+            if (driver instanceof ChromeDriver chrome) {
+                chrome.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                for (String origin : origins) {
+                    chrome.executeCdpCommand("Storage.clearDataForOrigin", Map.of(
+                        "origin", origin,
+                        "storageTypes", STORAGE_TYPES));
+                }
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+
+            // 4. Park on a blank page so the next test starts from nothing
+            driver.get("about:blank");
+            return true;
+        } catch (WebDriverException | IndexOutOfBoundsException e) {
+            System.err.println("⚠️ Browser reset failed, recycling session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Origins (scheme://host:port) in the current tab's history, so their storage can be
+     * cleared after the tab has moved on. Empty without Chrome DevTools.
+     */
+    private static Set<String> visitedOrigins(WebDriver driver) {
+        Set<String> origins = new LinkedHashSet<>();
+        if (!(driver instanceof ChromeDriver chrome)) {
+            return origins;
+        }
+        Map<String, Object> history = chrome.executeCdpCommand("Page.getNavigationHistory", Map.of());
+        if (history.get("entries") instanceof List<?> entries) {
+            for (Object entry : entries) {
+                if (entry instanceof Map<?, ?> map && map.get("url") instanceof String url) {
+                    try {
+                        URI uri = URI.create(url);
+                        if (("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null) {
+                            origins.add(uri.getScheme() + "://" + uri.getHost()
+                                + (uri.getPort() == -1 ? "" : ":" + uri.getPort()));
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Not a URL with an origin (e.g., data:)
+                    }
+                }
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * Cheap liveness probe: one round-trip to chromedriver.
+     */
+    private static boolean isResponsive(WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static void quietlyQuit(WebDriver driver) {
+        NetworkMonitor.detach(driver);
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            System.err.println("⚠️ Error quitting browser: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Quit every session still owned by the pool. Runs from the JVM shutdown hook.
+     */
+    private static void shutdown() {
+        PooledDriver pooled;
+        int closed = 0;
+        while ((pooled = IDLE.pollFirst()) != null) {
+            quietlyQuit(pooled.driver);
+            closed++;
+        }
+        for (WebDriver leaked : LEASED.keySet()) {
+            quietlyQuit(leaked);
+            closed++;
+        }
+        LEASED.clear();
+        if (closed > 0) {
+            System.out.println("✅ Browser pool closed (" + closed + " sessions)");
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package automation.utils;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.interactions.Interactive;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * A WebDriver handle that only starts the browser on first use.
+ *
+ * BaseTest hands every test a lazy handle in its {@code driver} field, so tests
+ * that never touch the UI (DB checks, API checks) never pay for a Chrome launch.
+ * The first real WebDriver call (get, findElement, executeScript, ...) leases the
+ * actual session from the factory; toString/equals/hashCode never do.
+ *
+ * The proxy implements the interfaces page objects and Selenium helpers rely on
+ * (JavascriptExecutor, TakesScreenshot, HasCapabilities, Interactive), plus
+ * WrapsDriver so code that needs the concrete ChromeDriver can unwrap it.
+ */
+public final class LazyDriver implements InvocationHandler {
+
+    private final Supplier<WebDriver> factory;
+    private volatile WebDriver delegate;
+
+    private LazyDriver(Supplier<WebDriver> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Create a lazy WebDriver handle.
+     *
+     * @param factory Called at most once, on first use, to obtain the real driver.
+     * @return A WebDriver proxy that defers browser startup.
+     */
+    public static WebDriver create(Supplier<WebDriver> factory) {
+        return (WebDriver) Proxy.newProxyInstance(
+            LazyDriver.class.getClassLoader(),
+            new Class<?>[] {
+                WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class,
+                HasCapabilities.class, Interactive.class, WrapsDriver.class
+            },
+            new LazyDriver(factory)
+        );
+    }
+
+    /**
+     * Return the real driver behind a lazy handle without starting it.
+     *
+     * @param driver A handle from {@link #create(Supplier)} (or any other WebDriver).
+     * @return The started delegate, null if the browser was never started,
+     *         or the argument itself if it is not a lazy handle.
+     */
+    public static WebDriver startedDelegate(WebDriver driver) {
+        if (driver != null && Proxy.isProxyClass(driver.getClass())
+                && Proxy.getInvocationHandler(driver) instanceof LazyDriver lazy) {
+            return lazy.delegate;
+        }
+        return driver;
+    }
+
+    /**
+     * Return the concrete driver behind any chain of WrapsDriver wrappers,
+     * starting a lazy handle if necessary.
+     *
+     * @param driver The driver to unwrap.
+     * @return The innermost WebDriver (e.g. the ChromeDriver).
+     */
+    public static WebDriver unwrap(WebDriver driver) {
+        WebDriver current = driver;
+        while (current instanceof WrapsDriver wrapper) {
+            WebDriver inner = wrapper.getWrappedDriver();
+            if (inner == null || inner == current) {
+                break;
+            }
+            current = inner;
+        }
+        return current;
+    }
+
+    private WebDriver delegate() {
+        WebDriver local = delegate;
+        if (local == null) {
+            synchronized (this) {
+                local = delegate;
+                if (local == null) {
+                    local = factory.get();
+                    delegate = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "toString":
+                return delegate == null ? "LazyDriver[not started]" : "LazyDriver[" + delegate + "]";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "getWrappedDriver":
+                return delegate();
+            default:
+                break;
+        }
+
+        WebDriver target = delegate();
+        if (!method.getDeclaringClass().isInstance(target)) {
+            throw new UnsupportedOperationException(
+                target.getClass().getSimpleName() + " does not support " + method.getName()
+            );
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package automation.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Opt-in "lean" browser mode: block resources functional assertions never look at.
+ *
+ * Requests are intercepted through the CDP Fetch domain at the request stage and
+ * failed with BlockedByClient before they leave the browser. Blocking is by
+ * resource type (images, fonts and media by default) and by URL glob.
+ * Stylesheets are NOT blocked by default: visibility checks depend on them.
+ *
+ * The report after each test counts blocked requests per type and the bytes the
+ * session actually transferred. It does not claim a "bytes saved" figure: a
+ * request blocked at the request stage never reaches the server, so its size is
+ * never known. Compare the transferred bytes with a non-lean run instead.
+ *
+ * Enable for the whole run with browser.lean=true, or per test/class with @LeanBrowser.
+ *
+ * Config (config.properties or -D):
+ *   browser.lean                - enable for every test (default false)
+ *   browser.lean.resourceTypes  - CDP resource types to block (default Image,Font,Media)
+ *   browser.lean.urlPatterns    - extra URL globs to block, comma-separated (default none)
+ */
+public final class LeanMode {
+
+    private static final List<String> RESOURCE_TYPES = splitList(
+        TestConfig.get("browser.lean.resourceTypes", "Image,Font,Media"));
+    private static final List<String> URL_PATTERNS = splitList(
+        TestConfig.get("browser.lean.urlPatterns", ""));
+
+    private LeanMode() {
+    }
+
+    /**
+     * @return true if lean mode is switched on for the whole run.
+     */
+    public static boolean isEnabledByDefault() {
+        return TestConfig.getBoolean("browser.lean", false);
+    }
+
+    /**
+     * Switch blocking on or off for a session, e.g. right after leasing it from the pool.
+     * Turning it off on a session that never had it is free (no DevTools connection is opened).
+     *
+     * @param driver The WebDriver (lazy handles and wrappers are unwrapped).
+     * @param enabled Whether to block resources for the next test.
+     * @return The same driver, for use in factory chains.
+     */
+    public static WebDriver apply(WebDriver driver, boolean enabled) {
+        if (enabled) {
+            NetworkMonitor.of(driver)
+                .ifPresentOrElse(
+                    monitor -> monitor.extension(Session.class, Session::new).enable(),
+                    () -> System.err.println("⚠️ Lean mode needs Chrome DevTools. Running without it."));
+        } else {
+            NetworkMonitor.ifAttached(driver)
+                .ifPresent(monitor -> monitor.extension(Session.class, Session::new).disable());
+        }
+        return driver;
+    }
+
+    /**
+     * Print what lean mode blocked since it was last enabled on this session.
+     *
+     * @param driver The WebDriver used by the test.
+     */
+    public static void report(WebDriver driver) {
+        NetworkMonitor.ifAttached(driver)
+            .ifPresent(monitor -> monitor.extension(Session.class, Session::new).report());
+    }
+
+    /**
+     * Requests blocked since lean mode was last enabled on this session, by CDP resource type.
+     *
+     * @param driver The WebDriver used by the test.
+     * @return Resource type (e.g., "Image") to count; empty if lean mode never ran on this session.
+     */
+    public static Map<String, Integer> blockedRequests(WebDriver driver) {
+        return NetworkMonitor.ifAttached(driver)
+            .map(monitor -> monitor.extension(Session.class, Session::new).blockedByType())
+            .orElse(Map.of());
+    }
+
+    /**
+     * Lean-mode state for one browser session.
+     */
+    private static final class Session {
+        private final NetworkMonitor monitor;
+        private final DevTools devTools;
+        private final Map<String, Integer> blockedByType = new TreeMap<>();
+        private long bytesAtEnable;
+        private volatile boolean enabled;
+
+        private Session(NetworkMonitor monitor) {
+            this.monitor = monitor;
+            this.devTools = monitor.devTools();
+            devTools.addListener(NetworkMonitor.event("Fetch.requestPaused"), this::blocked);
+        }
+
+        private void enable() {
+            List<Map<String, Object>> patterns = new ArrayList<>();
+            for (String type : RESOURCE_TYPES) {
+                patterns.add(Map.of("urlPattern", "*", "resourceType", type, "requestStage", "Request"));
+            }
+            for (String url : URL_PATTERNS) {
+                patterns.add(Map.of("urlPattern", url, "requestStage", "Request"));
+            }
+            synchronized (this) {
+                blockedByType.clear();
+                bytesAtEnable = monitor.bytesTransferred();
+            }
+            devTools.send(new Command<>("Fetch.enable", Map.of("patterns", patterns)));
+            enabled = true;
+        }
+
+        private void disable() {
+            if (enabled) {
+                devTools.send(new Command<>("Fetch.disable", Map.of()));
+                enabled = false;
+            }
+        }
+
+        /**
+         * Fetch.requestPaused handler: only patterns we asked for pause, so every paused request is blocked.
+         */
+        private void blocked(Map<String, Object> params) {
+            synchronized (this) {
+                blockedByType.merge(String.valueOf(params.get("resourceType")), 1, Integer::sum);
+            }
+            devTools.send(new Command<>("Fetch.failRequest",
+                Map.of("requestId", params.get("requestId"), "errorReason", "BlockedByClient")));
+        }
+
+        private synchronized Map<String, Integer> blockedByType() {
+            return Collections.unmodifiableMap(new TreeMap<>(blockedByType));
+        }
+
+        private synchronized void report() {
+            if (!enabled) {
+                return;
+            }
+            int total = blockedByType.values().stream().mapToInt(Integer::intValue).sum();
+            System.out.println("🪶 Lean mode: blocked " + total + " request(s) " + blockedByType
+                + ", " + (monitor.bytesTransferred() - bytesAtEnable) + " bytes transferred");
+        }
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+            .map(String::strip)
+            .filter(s -> !s.isEmpty())
+            .toList();
+    }
+}
@@ -0,0 +1,290 @@
+package automation.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Tracks in-flight network requests of a Chrome session over the DevTools Protocol.
+ *
+ * Uses raw CDP method names (Network.requestWillBeSent, Network.loadingFinished,
+ * Network.loadingFailed, Page.loadEventFired, Page.frameNavigated) rather than the versioned
+ * selenium-devtools-vNNN bindings. That keeps it working across Chrome updates.
+ * Waiters block on the monitor and are woken by CDP events, so waiting for
+ * network idle costs no WebDriver round-trips at all.
+ *
+ * It also counts bytes transferred per session (reported by lean mode).
+ *
+ * Requests that may legitimately never finish do not hold the page busy:
+ *   - EventSource, WebSocket and Ping requests are not tracked at all;
+ *   - any other request stops counting as in flight after
+ *     network.idle.maxRequestMillis (long-poll, streaming fetch, endless media);
+ *   - when the main frame commits a new document, requests of the old one are dropped.
+ *
+ * One monitor per browser session, attached lazily and dropped when DriverPool
+ * quits the session. Other CDP features hang their per-session state off the
+ * monitor via {@link #extension(Class, Function)} so it is dropped at the same time.
+ *
+ * Config (config.properties or -D):
+ *   network.idle.maxRequestMillis - how long one request can keep the page busy (default 5000)
+ */
+public final class NetworkMonitor {
+
+    private static final long MAX_REQUEST_NANOS =
+        Math.max(1, TestConfig.getInt("network.idle.maxRequestMillis", 5000)) * 1_000_000L;
+
+    /** Resource types that stay open by design, so they never count as in flight. */
+    private static final Set<String> LONG_LIVED_TYPES = Set.of("EventSource", "WebSocket", "Ping");
+
+    private static final Map<WebDriver, NetworkMonitor> MONITORS = new ConcurrentHashMap<>();
+
+    private static volatile boolean unsupportedLogged;
+
+    private final DevTools devTools;
+    private final Map<Class<?>, Object> extensions = new ConcurrentHashMap<>();
+    private final Map<String, Request> inFlight = new HashMap<>();
+    private long bytesTransferred;
+    private long lastActivityNanos = System.nanoTime();
+    private long eventCount;
+
+    private NetworkMonitor(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    /**
+     * Get (or lazily create) the monitor for a browser session.
+     *
+     * @param driver Any driver; lazy handles and wrappers are unwrapped.
+     * @return The monitor, or empty if the browser does not expose DevTools.
+     */
+    public static Optional<NetworkMonitor> of(WebDriver driver) {
+        WebDriver real = LazyDriver.unwrap(driver);
+        if (!(real instanceof HasDevTools)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(MONITORS.computeIfAbsent(real, NetworkMonitor::attach));
+        } catch (RuntimeException e) {
+            if (!unsupportedLogged) {
+                unsupportedLogged = true;
+                System.err.println("⚠️ DevTools unavailable, falling back to DOM polling: " + e.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get the monitor for a session only if one is already attached (never opens DevTools).
+     *
+     * @param driver Any driver; started lazy handles are unwrapped, unstarted ones yield empty.
+     * @return The attached monitor, or empty.
+     */
+    public static Optional<NetworkMonitor> ifAttached(WebDriver driver) {
+        WebDriver started = LazyDriver.startedDelegate(driver);
+        return started == null
+            ? Optional.empty()
+            : Optional.ofNullable(MONITORS.get(LazyDriver.unwrap(started)));
+    }
+
+    /**
+     * @return The DevTools connection this monitor listens on (shared with other CDP features).
+     */
+    public DevTools devTools() {
+        return devTools;
+    }
+
+    /**
+     * Per-session state owned by another CDP feature, created on first request.
+     *
+     * @param type The extension's class (used as the key).
+     * @param factory Creates the extension for this monitor.
+     * @return The existing or newly created extension.
+     */
+    public <T> T extension(Class<T> type, Function<NetworkMonitor, T> factory) {
+        return type.cast(extensions.computeIfAbsent(type, key -> factory.apply(this)));
+    }
+
+    /**
+     * @return Encoded bytes received by this session so far.
+     */
+    public synchronized long bytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Close the DevTools connection for a session that is about to be quit.
+     *
+     * @param driver The real (unwrapped) driver.
+     */
+    public static void detach(WebDriver driver) {
+        NetworkMonitor monitor = MONITORS.remove(driver);
+        if (monitor != null) {
+            try {
+                monitor.devTools.close();
+            } catch (RuntimeException e) {
+                // Browser already gone
+            }
+        }
+    }
+
+    private static NetworkMonitor attach(WebDriver driver) {
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        NetworkMonitor monitor = new NetworkMonitor(devTools);
+
+        devTools.addListener(event("Network.requestWillBeSent"), monitor::started);
+        devTools.addListener(event("Network.loadingFinished"), monitor::finished);
+        devTools.addListener(event("Network.loadingFailed"), monitor::finished);
+        devTools.addListener(event("Page.loadEventFired"), params -> monitor.activity());
+        devTools.addListener(event("Page.frameNavigated"), monitor::navigated);
+
+        devTools.send(new Command<>("Network.enable", Map.of()));
+        devTools.send(new Command<>("Page.enable", Map.of()));
+        return monitor;
+    }
+
+    /**
+     * Raw CDP event whose payload is read as a plain map.
+     */
+    static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    // ========================================================================
+    // EVENT HANDLERS (DevTools thread)
+    // ========================================================================
+
+    /**
+     * A request in flight: the document (loaderId) that issued it, and when it started.
+     */
+    private record Request(String loaderId, long startNanos) {
+    }
+
+    private synchronized void started(Map<String, Object> params) {
+        if (!LONG_LIVED_TYPES.contains(String.valueOf(params.get("type")))) {
+            inFlight.put(String.valueOf(params.get("requestId")),
+                new Request(String.valueOf(params.get("loaderId")), System.nanoTime()));
+        }
+        activity();
+    }
+
+    private synchronized void finished(Map<String, Object> params) {
+        inFlight.remove(String.valueOf(params.get("requestId")));
+        if (params.get("encodedDataLength") instanceof Number length) {
+            bytesTransferred += length.longValue();
+        }
+        activity();
+    }
+
+    /**
+     * Main frame committed a new document: requests of the previous document no longer matter.
+     */
+    private synchronized void navigated(Map<String, Object> params) {
+        if (params.get("frame") instanceof Map<?, ?> frame && frame.get("parentId") == null) {
+            String loaderId = String.valueOf(frame.get("loaderId"));
+            inFlight.values().removeIf(request -> !loaderId.equals(request.loaderId()));
+            activity();
+        }
+    }
+
+    private synchronized void activity() {
+        lastActivityNanos = System.nanoTime();
+        eventCount++;
+        notifyAll();
+    }
+
+    // ========================================================================
+    // WAITING (test thread)
+    // ========================================================================
+
+    /**
+     * @return The number of requests currently keeping the page busy
+     *         (in flight for less than network.idle.maxRequestMillis).
+     */
+    public synchronized int inFlightCount() {
+        long now = System.nanoTime();
+        return (int) inFlight.values().stream().filter(request -> now - request.startNanos() < MAX_REQUEST_NANOS).count();
+    }
+
+    /**
+     * @return Nanoseconds until the last request now keeping the page busy stops counting; 0 if none does.
+     */
+    private long busyForNanos(long now) {
+        long busyFor = 0;
+        for (Request request : inFlight.values()) {
+            busyFor = Math.max(busyFor, request.startNanos() + MAX_REQUEST_NANOS - now);
+        }
+        return busyFor;
+    }
+
+    /**
+     * Block until no request has been in flight for the quiet period.
+     *
+     * @param quietPeriod How long the network must stay silent.
+     * @param timeout Maximum time to wait.
+     * @return true if the network went idle; false on timeout.
+     */
+    public synchronized boolean awaitIdle(Duration quietPeriod, Duration timeout) {
+        long quietNanos = quietPeriod.toNanos();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long now = System.nanoTime();
+            long waitNanos;
+            long busyFor = busyForNanos(now);
+            if (busyFor <= 0) {
+                long idleFor = now - lastActivityNanos;
+                if (idleFor >= quietNanos) {
+                    return true;
+                }
+                waitNanos = quietNanos - idleFor;
+            } else {
+                // Woken by the next event, or when the slowest request stops counting
+                waitNanos = busyFor;
+            }
+            if (now >= deadline) {
+                return false;
+            }
+            waitNanos = Math.min(waitNanos, deadline - now);
+            if (!waitNanos(waitNanos)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Block until the next network/page event or the timeout, whichever comes first.
+     *
+     * @param timeout Maximum time to wait.
+     */
+    public synchronized void awaitActivity(Duration timeout) {
+        long seen = eventCount;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (eventCount == seen) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !waitNanos(remaining)) {
+                return;
+            }
+        }
+    }
+
+    private boolean waitNanos(long nanos) {
+        try {
+            wait(Math.max(1, nanos / 1_000_000));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package automation.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One isolated copy of the Node.js app under test.
+ *
+ * Each instance gets a private working directory that mirrors the app checkout:
+ * top-level files (package.json, server scripts) are copied, directories such as
+ * node_modules are symlinked, and shop.db is a fresh copy of the golden database.
+ * The app is started there on a free port, so it cannot see or touch any other
+ * instance's cart.
+ *
+ * The app finds its private DB whichever way it resolves the path:
+ *   - relative to the working directory (./shop.db),
+ *   - relative to its top-level scripts (__dirname is the work dir, since they are copied),
+ *   - or from the env var named by app.db.env (default DB_PATH).
+ */
+public final class NodeAppInstance implements AppInstance {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+
+    private final Path workDir;
+    private final Process process;
+    private final String baseUrl;
+    private final String dbPath;
+
+    private NodeAppInstance(Path workDir, Process process, String baseUrl, String dbPath) {
+        this.workDir = workDir;
+        this.process = process;
+        this.baseUrl = baseUrl;
+        this.dbPath = dbPath;
+    }
+
+    /**
+     * Copy the golden DB, start the app on a free port and wait until it answers HTTP.
+     *
+     * Config (config.properties or -D):
+     *   app.dir            - path to the app-under-test checkout (default app-under-test)
+     *   app.golden.db      - DB copied into every instance (default ${app.dir}/shop.db)
+     *   app.command        - start command (default "npm start")
+     *   app.port.env       - env var carrying the port (default PORT)
+     *   app.db.env         - env var carrying the DB path (default DB_PATH)
+     *   app.startup.timeoutSeconds - readiness timeout (default 60)
+     *
+     * @return A running, ready instance.
+     * @throws IllegalStateException If the app cannot be started.
+     */
+    public static NodeAppInstance start() {
+        Path appDir = Paths.get(TestConfig.get("app.dir", "app-under-test")).toAbsolutePath().normalize();
+        Path goldenDb = Paths.get(TestConfig.get("app.golden.db", appDir.resolve("shop.db").toString()))
+            .toAbsolutePath().normalize();
+        if (!Files.isDirectory(appDir)) {
+            throw new IllegalStateException("app.dir does not exist: " + appDir);
+        }
+        if (!Files.isRegularFile(goldenDb)) {
+            throw new IllegalStateException("Golden shop.db not found: " + goldenDb);
+        }
+
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("app-under-test-");
+            Path privateDb = workDir.resolve(goldenDb.getFileName());
+            Files.copy(goldenDb, privateDb, StandardCopyOption.COPY_ATTRIBUTES);
+            mirrorAppDir(appDir, workDir, goldenDb.getFileName().toString());
+
+            int port = findFreePort();
+            String baseUrl = "http://localhost:" + port;
+
+            ProcessBuilder builder = new ProcessBuilder(shellCommand(TestConfig.get("app.command", "npm start")))
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile());
+            builder.environment().put(TestConfig.get("app.port.env", "PORT"), String.valueOf(port));
+            builder.environment().put(TestConfig.get("app.db.env", "DB_PATH"), privateDb.toString());
+
+            Process process = builder.start();
+            NodeAppInstance instance = new NodeAppInstance(workDir, process, baseUrl, privateDb.toString());
+            instance.awaitReady(Duration.ofSeconds(TestConfig.getInt("app.startup.timeoutSeconds", 60)));
+            System.out.println("✅ App instance started: " + baseUrl + " (db: " + privateDb + ")");
+            return instance;
+        } catch (IOException e) {
+            deleteRecursively(workDir);
+            throw new IllegalStateException("Failed to start app instance: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public String dbPath() {
+        return dbPath;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    @Override
+    public void close() {
+        // npm spawns node as a child, so stop the whole tree
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        DbUtils.closeConnections(dbPath);
+        deleteRecursively(workDir);
+        System.out.println("✅ App instance stopped: " + baseUrl);
+    }
+
+    /**
+     * Poll the base URL until the app answers (any non-5xx status) or the timeout expires.
+     */
+    private void awaitReady(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/"))
+            .timeout(Duration.ofSeconds(2))
+            .GET()
+            .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                String log = readLog();
+                close();
+                throw new IllegalStateException(
+                    "App instance exited during startup (exit code " + process.exitValue() + "). Output:\n" + log
+                );
+            }
+            try {
+                if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            sleep(100);
+        }
+        String log = readLog();
+        close();
+        throw new IllegalStateException(
+            "App instance did not become ready within " + timeout + " at " + baseUrl + ". Output:\n" + log
+        );
+    }
+
+    /**
+     * Read the app's captured stdout/stderr (used for startup error messages).
+     */
+    private String readLog() {
+        try {
+            return Files.readString(workDir.resolve("app.log"));
+        } catch (IOException e) {
+            return "(no output captured)";
+        }
+    }
+
+    /**
+     * Mirror the top level of the app checkout into the work dir, skipping the DB files.
+     * Files are copied (so scripts see the work dir as __dirname), directories are symlinked.
+     */
+    private static void mirrorAppDir(Path appDir, Path workDir, String dbFileName) throws IOException {
+        try (Stream<Path> entries = Files.list(appDir)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                String name = entry.getFileName().toString();
+                if (name.startsWith(dbFileName)) {
+                    continue;  // shop.db, shop.db-wal, shop.db-shm, shop.db-journal
+                }
+                if (Files.isDirectory(entry)) {
+                    Files.createSymbolicLink(workDir.resolve(name), entry);
+                } else {
+                    Files.copy(entry, workDir.resolve(name), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    private static List<String> shellCommand(String command) {
+        List<String> args = new ArrayList<>();
+        if (File.separatorChar == '\\') {
+            args.add("cmd");
+            args.add("/c");
+        }
+        args.addAll(List.of(command.strip().split("\\s+")));
+        return args;
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Delete a directory tree. Symlinks are removed, never followed.
+     */
+    static void deleteRecursively(Path dir) {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("⚠️ Failed to delete " + dir + ": " + e.getMessage());
+        }
+    }
+}
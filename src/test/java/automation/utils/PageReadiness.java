@@ -0,0 +1,112 @@
+package automation.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Navigation readiness: "the network is idle AND the page's marker element is rendered".
+ *
+ * Page objects used to poll for a marker element and carry on with a warning when
+ * it never showed up. This service waits on CDP network events instead (see
+ * {@link NetworkMonitor}). Once no request has been in flight for the quiet period,
+ * a single script checks document.readyState and the marker together. If the
+ * marker is not there yet, it sleeps until the next network event and checks again.
+ * A page that never becomes ready fails with an AssertionError instead of being ignored.
+ *
+ * Browsers without DevTools fall back to an adaptive poll of the same check.
+ *
+ * Config (config.properties or -D):
+ *   page.ready.quietMillis - how long the network must stay silent (default 50)
+ */
+public final class PageReadiness {
+
+    private static final Duration QUIET_PERIOD =
+        Duration.ofMillis(TestConfig.getInt("page.ready.quietMillis", 50));
+
+    /** Document loaded and marker present with a rendered box. */
+    private static final String READY_SCRIPT =
+        "if (document.readyState !== 'complete') { return false; }"
+            + " var el = document.querySelector(arguments[0]);"
+            + " return !!el && el.getClientRects().length > 0;";
+
+    private PageReadiness() {
+    }
+
+    /**
+     * Load a URL and wait until the page is ready.
+     *
+     * @param driver The WebDriver.
+     * @param url The URL to open.
+     * @param markerCss CSS selector of an element that proves the page rendered.
+     * @throws AssertionError If the page is not ready within the default timeout.
+     */
+    public static void navigate(WebDriver driver, String url, String markerCss) {
+        driver.get(url);
+        await(driver, markerCss);
+    }
+
+    /**
+     * Wait until the current page (e.g. after a click that navigates) is ready.
+     *
+     * @param driver The WebDriver.
+     * @param markerCss CSS selector of an element that proves the page rendered.
+     * @throws AssertionError If the page is not ready within the default timeout.
+     */
+    public static void await(WebDriver driver, String markerCss) {
+        await(driver, markerCss, WaitPolicy.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Wait until the current page is ready.
+     *
+     * @param driver The WebDriver.
+     * @param markerCss CSS selector of an element that proves the page rendered.
+     * @param timeout Maximum time to wait.
+     * @throws AssertionError If the page is not ready within the timeout.
+     */
+    public static void await(WebDriver driver, String markerCss, Duration timeout) {
+        Optional<NetworkMonitor> monitor = NetworkMonitor.of(driver);
+        if (monitor.isEmpty()) {
+            awaitByPolling(driver, markerCss, timeout);
+            return;
+        }
+
+        NetworkMonitor network = monitor.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Duration remaining = Duration.ofNanos(deadline - System.nanoTime());
+            boolean idle = !remaining.isNegative() && network.awaitIdle(QUIET_PERIOD, remaining);
+            if (idle && isReady(driver, markerCss)) {
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new AssertionError(
+                    "Page not ready after " + timeout.toMillis() + " ms: "
+                        + network.inFlightCount() + " request(s) in flight, marker '" + markerCss + "' "
+                        + (isReady(driver, markerCss) ? "present" : "missing")
+                );
+            }
+            // Network idle but marker not rendered yet: sleep until something happens
+            long remainingNanos = Math.max(0, deadline - System.nanoTime());
+            network.awaitActivity(Duration.ofNanos(Math.min(remainingNanos, QUIET_PERIOD.toNanos())));
+        }
+    }
+
+    private static void awaitByPolling(WebDriver driver, String markerCss, Duration timeout) {
+        try {
+            WaitPolicy.explicitWait(driver, timeout).until("page ready (polling)", d -> isReady(d, markerCss));
+        } catch (TimeoutException e) {
+            throw new AssertionError(
+                "Page not ready after " + timeout.toMillis() + " ms: marker '" + markerCss + "' missing"
+            );
+        }
+    }
+
+    private static boolean isReady(WebDriver driver, String markerCss) {
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(READY_SCRIPT, markerCss));
+    }
+}
@@ -0,0 +1,23 @@
+package automation.utils;
+
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a query straight into a value (a record, a primitive wrapper, ...).
+ *
+ * Used with {@link DbUtils#query} and {@link DbUtils#queryOne}. The {@link DbRow}
+ * passed in is a reusable view over the ResultSet, so mapping allocates only
+ * the result itself, not a Map per row.
+ *
+ * @param <T> The mapped type.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * @param row The current row (valid only during this call).
+     * @return The mapped value.
+     * @throws SQLException If a column cannot be read.
+     */
+    T map(DbRow row) throws SQLException;
+}
@@ -0,0 +1,396 @@
+package automation.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-JVM stand-in for the Node.js shop app.
+ *
+ * Serves the endpoints ApiUtils uses (/reset-cart, /add-to-cart, /cart) and the
+ * pages the page objects rely on (home product list, cart table, checkout) on
+ * top of a private SQLite file with the same items/cart schema as shop.db.
+ * Built on the JDK's com.sun.net.httpserver, so it needs no extra dependencies
+ * and starts in milliseconds.
+ *
+ * The DOM mirrors what HomePage, CartPage and CheckoutPage expect:
+ *   - header a#cart-link with a span holding the cart count
+ *   - ul > li per product (img, h2 name, price, form with hidden itemId + submit button)
+ *   - div.notification after an add, removed after 3 seconds
+ *   - "Maximum quantity reached" and a disabled button at 10 units
+ *   - cart table rows (name, quantity select, price), h2 "Total Price: $X", button#checkout-button
+ *   - checkout page titled "Checkout" with .checkout-container, .thank-you-message, .total-price
+ *
+ * Select it with app.instances=stub; each parallel worker then gets its own stub.
+ */
+public final class ShopStubServer implements AppInstance {
+
+    /** Same limit the real app enforces per item. */
+    static final int MAX_QUANTITY = 10;
+
+    private final HttpServer server;
+    private final Connection connection;
+    private final Path workDir;
+    private final String dbPath;
+    private final String baseUrl;
+
+    private ShopStubServer(HttpServer server, Connection connection, Path workDir, String dbPath) {
+        this.server = server;
+        this.connection = connection;
+        this.workDir = workDir;
+        this.dbPath = dbPath;
+        this.baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Create a fresh seeded database and start serving on a free port.
+     *
+     * @return The running stub.
+     * @throws IllegalStateException If the DB or server cannot be created.
+     */
+    public static ShopStubServer start() {
+        Path workDir = null;
+        try {
+            workDir = Files.createTempDirectory("shop-stub-");
+            String dbPath = workDir.resolve("shop.db").toString();
+            Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbPath);
+            runScript(connection, "schema/shop.sql");
+            runScript(connection, "schema/shop-seed.sql");
+
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            ShopStubServer stub = new ShopStubServer(server, connection, workDir, dbPath);
+            server.createContext("/", stub::handle);
+            server.start();
+            System.out.println("✅ Shop stub started: " + stub.baseUrl + " (db: " + dbPath + ")");
+            return stub;
+        } catch (IOException | SQLException e) {
+            NodeAppInstance.deleteRecursively(workDir);
+            throw new IllegalStateException("Failed to start shop stub: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public String dbPath() {
+        return dbPath;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Error closing stub DB: " + e.getMessage());
+        }
+        DbUtils.closeConnections(dbPath);
+        NodeAppInstance.deleteRecursively(workDir);
+        System.out.println("✅ Shop stub stopped: " + baseUrl);
+    }
+
+    // ========================================================================
+    // ROUTING
+    // ========================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        try {
+            synchronized (connection) {
+                if (method.equals("GET") && path.equals("/")) {
+                    sendHtml(exchange, renderHome(exchange.getRequestURI().getQuery()));
+                } else if (method.equals("GET") && path.equals("/cart")) {
+                    sendHtml(exchange, renderCart());
+                } else if (method.equals("GET") && path.equals("/checkout")) {
+                    sendHtml(exchange, renderCheckout());
+                } else if (method.equals("POST") && path.equals("/reset-cart")) {
+                    update("DELETE FROM cart");
+                    send(exchange, 200, "text/plain", "Cart reset");
+                } else if (method.equals("POST") && path.equals("/add-to-cart")) {
+                    handleAddToCart(exchange);
+                } else if (method.equals("POST") && path.equals("/update-cart")) {
+                    handleUpdateCart(exchange);
+                } else if (method.equals("GET") && path.startsWith("/images/")) {
+                    send(exchange, 200, "image/svg+xml", renderImage(path.substring("/images/".length())));
+                } else if (method.equals("GET") && path.equals("/styles.css")) {
+                    send(exchange, 200, "text/css", STYLES);
+                } else {
+                    send(exchange, 404, "text/plain", "Not found");
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            send(exchange, 500, "text/plain", "Stub error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleAddToCart(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> form = readForm(exchange);
+        int itemId = Integer.parseInt(form.getOrDefault("itemId", "0"));
+        if (queryInt("SELECT COUNT(*) FROM items WHERE id = ?", itemId) == 0) {
+            send(exchange, 404, "text/plain", "Unknown item " + itemId);
+            return;
+        }
+        if (queryInt("SELECT COALESCE(SUM(quantity), 0) FROM cart WHERE item_id = ?", itemId) >= MAX_QUANTITY) {
+            send(exchange, 400, "text/plain", "Maximum quantity reached");
+            return;
+        }
+        update(
+            "INSERT INTO cart (item_id, quantity) VALUES (?, 1) "
+                + "ON CONFLICT(item_id) DO UPDATE SET quantity = quantity + 1",
+            itemId
+        );
+        redirect(exchange, "/?added=" + itemId);
+    }
+
+    private void handleUpdateCart(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> form = readForm(exchange);
+        int itemId = Integer.parseInt(form.getOrDefault("itemId", "0"));
+        int quantity = Math.max(0, Math.min(MAX_QUANTITY, Integer.parseInt(form.getOrDefault("quantity", "0"))));
+        if (quantity == 0) {
+            update("DELETE FROM cart WHERE item_id = ?", itemId);
+        } else {
+            update("UPDATE cart SET quantity = ? WHERE item_id = ?", quantity, itemId);
+        }
+        double line = queryDouble(
+            "SELECT COALESCE(SUM(i.price * c.quantity), 0) FROM cart c JOIN items i ON i.id = c.item_id WHERE c.item_id = ?",
+            itemId
+        );
+        send(exchange, 200, "application/json",
+            "{\"linePrice\":\"" + money(line) + "\",\"totalPrice\":\"" + money(cartTotal()) + "\"}");
+    }
+
+    // ========================================================================
+    // PAGES
+    // ========================================================================
+
+    private String renderHome(String query) throws SQLException {
+        StringBuilder html = new StringBuilder(page("AI Animal Art", cartCount()));
+        if (query != null && query.startsWith("added=")) {
+            html.append("<div class=\"notification\">Item successfully added to cart</div>\n")
+                .append("<script>setTimeout(function () {")
+                .append(" var n = document.querySelector('.notification'); if (n) { n.remove(); }")
+                .append(" }, 3000);</script>\n");
+        }
+        html.append("<ul>\n");
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT i.id, i.name, i.price, i.image, COALESCE(c.quantity, 0) "
+                    + "FROM items i LEFT JOIN cart c ON c.item_id = i.id ORDER BY i.id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                String name = escape(rs.getString(2));
+                boolean atMax = rs.getInt(5) >= MAX_QUANTITY;
+                html.append("<li>\n")
+                    .append("  <img src=\"/images/").append(escape(rs.getString(4))).append("\" alt=\"").append(name).append("\">\n")
+                    .append("  <h2>").append(name).append("</h2>\n")
+                    .append("  <p class=\"price\">$").append(money(rs.getDouble(3))).append("</p>\n")
+                    .append("  <form action=\"/add-to-cart\" method=\"POST\">\n")
+                    .append("    <input type=\"hidden\" name=\"itemId\" value=\"").append(id).append("\">\n")
+                    .append("    <button type=\"submit\"").append(atMax ? " disabled" : "").append(">Add to Cart</button>\n")
+                    .append("  </form>\n");
+                if (atMax) {
+                    html.append("  <p class=\"max-quantity\">Maximum quantity reached</p>\n");
+                }
+                html.append("</li>\n");
+            }
+        }
+        return html.append("</ul>\n</body>\n</html>\n").toString();
+    }
+
+    private String renderCart() throws SQLException {
+        StringBuilder html = new StringBuilder(page("Cart", cartCount()));
+        html.append("<a id=\"shop-link\" href=\"/\">Back to Shop</a>\n")
+            .append("<table>\n<thead><tr><th>Item</th><th>Quantity</th><th>Price</th></tr></thead>\n<tbody>\n");
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT i.id, i.name, c.quantity, i.price * c.quantity "
+                    + "FROM cart c JOIN items i ON i.id = c.item_id ORDER BY i.id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int quantity = rs.getInt(3);
+                html.append("<tr>\n  <td>").append(escape(rs.getString(2))).append("</td>\n")
+                    .append("  <td><select name=\"quantity\" data-item-id=\"").append(rs.getInt(1)).append("\">");
+                for (int q = 0; q <= MAX_QUANTITY; q++) {
+                    html.append("<option").append(q == quantity ? " selected" : "").append(">").append(q).append("</option>");
+                }
+                html.append("</select></td>\n")
+                    .append("  <td class=\"line-price\">$").append(money(rs.getDouble(4))).append("</td>\n</tr>\n");
+            }
+        }
+        html.append("</tbody>\n</table>\n")
+            .append("<h2>Total Price: $").append(money(cartTotal())).append("</h2>\n")
+            .append("<form action=\"/checkout\" method=\"GET\"><button id=\"checkout-button\" type=\"submit\">Checkout</button></form>\n")
+            .append("<script>\n")
+            .append("document.querySelectorAll('select[name=quantity]').forEach(function (select) {\n")
+            .append("  select.addEventListener('change', function () {\n")
+            .append("    var body = new URLSearchParams({ itemId: select.dataset.itemId, quantity: select.value });\n")
+            .append("    fetch('/update-cart', { method: 'POST', body: body }).then(function (r) { return r.json(); })\n")
+            .append("      .then(function (data) {\n")
+            .append("        var row = select.closest('tr');\n")
+            .append("        if (select.value === '0') { row.remove(); } else { row.querySelector('.line-price').textContent = '$' + data.linePrice; }\n")
+            .append("        document.querySelector('h2').textContent = 'Total Price: $' + data.totalPrice;\n")
+            .append("      });\n")
+            .append("  });\n")
+            .append("});\n")
+            .append("</script>\n</body>\n</html>\n");
+        return html.toString();
+    }
+
+    private String renderCheckout() throws SQLException {
+        return page("Checkout", cartCount())
+            + "<div class=\"checkout-container\">\n"
+            + "  <h1>Checkout</h1>\n"
+            + "  <div class=\"thank-you-message\">Thanks for your order!</div>\n"
+            + "  <div class=\"total-price\">Total price: $" + money(cartTotal()) + "</div>\n"
+            + "</div>\n</body>\n</html>\n";
+    }
+
+    private static String page(String title, int cartCount) {
+        return "<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n"
+            + "<title>" + escape(title) + "</title>\n"
+            + "<link rel=\"stylesheet\" href=\"/styles.css\">\n"
+            + "</head>\n<body>\n"
+            + "<header><h1>AI Animal Art</h1> <a id=\"cart-link\" href=\"/cart\">Cart (<span>" + cartCount + "</span>)</a></header>\n";
+    }
+
+    private static String renderImage(String name) {
+        String label = escape(name.replaceFirst("\\.[^.]*$", ""));
+        return "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"120\" height=\"120\">"
+            + "<rect width=\"120\" height=\"120\" fill=\"#ddd\"/>"
+            + "<text x=\"60\" y=\"64\" text-anchor=\"middle\" font-size=\"14\">" + label + "</text></svg>";
+    }
+
+    private static final String STYLES = String.join("\n",
+        "body { font-family: sans-serif; margin: 2rem; }",
+        "ul { list-style: none; padding: 0; display: flex; flex-wrap: wrap; gap: 1rem; }",
+        "li { border: 1px solid #ccc; padding: 1rem; width: 160px; }",
+        ".notification { background: #dff0d8; padding: 1rem; margin: 1rem 0; transition: opacity 0.3s; }",
+        "");
+
+    // ========================================================================
+    // DB + HTTP HELPERS
+    // ========================================================================
+
+    private int cartCount() throws SQLException {
+        return queryInt("SELECT COALESCE(SUM(quantity), 0) FROM cart");
+    }
+
+    private double cartTotal() throws SQLException {
+        return queryDouble("SELECT COALESCE(SUM(i.price * c.quantity), 0) FROM cart c JOIN items i ON i.id = c.item_id");
+    }
+
+    private int queryInt(String sql, Object... params) throws SQLException {
+        return (int) queryDouble(sql, params);
+    }
+
+    private double queryDouble(String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getDouble(1) : 0;
+            }
+        }
+    }
+
+    private void update(String sql, Object... params) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void runScript(Connection connection, String resource) throws SQLException {
+        try (InputStream input = ShopStubServer.class.getClassLoader().getResourceAsStream(resource);
+             Statement stmt = connection.createStatement()) {
+            if (input == null) {
+                throw new IllegalStateException("Missing classpath resource: " + resource);
+            }
+            String script = new String(input.readAllBytes(), StandardCharsets.UTF_8)
+                .replaceAll("(?m)^\\s*--.*$", "");
+            for (String sql : script.split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                form.put(
+                    URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return form;
+    }
+
+    private static void sendHtml(HttpExchange exchange, String html) throws IOException {
+        send(exchange, 200, "text/html; charset=utf-8", html);
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(303, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.US, "%.2f", amount);
+    }
+
+    private static String escape(String text) {
+        return text == null ? "" : text
+            .replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\"", "&quot;");
+    }
+}
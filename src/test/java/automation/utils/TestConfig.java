@@ -0,0 +1,106 @@
+package automation.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Shared, read-once access to config.properties.
+ *
+ * The file is loaded a single time per JVM so that pooled resources (browsers,
+ * DB connections, app instances) can read their settings without each test
+ * re-parsing it. A system property (-Dkey=value) always wins over the file,
+ * which keeps CI overrides like -Dheadless=true working for every key.
+ */
+public final class TestConfig {
+
+    private static final Properties FILE_PROPERTIES = load();
+
+    private TestConfig() {
+    }
+
+    /**
+     * Load config.properties from the test classpath.
+     * Falls back to an empty set (plus the default base URL) if the file is missing.
+     */
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream input = TestConfig.class.getClassLoader()
+                .getResourceAsStream("config.properties")) {
+            if (input == null) {
+                System.err.println("⚠️ config.properties not found. Using defaults.");
+                properties.setProperty("base.url", "http://localhost:3000");
+            } else {
+                properties.load(input);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Error loading config.properties: " + e.getMessage());
+            properties.setProperty("base.url", "http://localhost:3000");
+        }
+        return properties;
+    }
+
+    /**
+     * Return a copy of the effective configuration (file values overlaid with system properties).
+     *
+     * @return A new Properties instance the caller is free to modify.
+     */
+    public static Properties asProperties() {
+        Properties copy = new Properties();
+        copy.putAll(FILE_PROPERTIES);
+        for (String key : FILE_PROPERTIES.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                copy.setProperty(key, override);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Look up a string setting.
+     *
+     * @param key The property key (e.g., "base.url").
+     * @param defaultValue Value returned when the key is not set anywhere.
+     * @return The system property, else the config.properties value, else the default.
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = FILE_PROPERTIES.getProperty(key);
+        }
+        return (value == null || value.isBlank()) ? defaultValue : value.strip();
+    }
+
+    /**
+     * Look up an integer setting.
+     *
+     * @param key The property key.
+     * @param defaultValue Value returned when the key is missing or not a number.
+     * @return The parsed integer value.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("⚠️ Invalid integer for '" + key + "': " + value + ". Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Look up a boolean setting ("true"/"false", case-insensitive).
+     *
+     * @param key The property key.
+     * @param defaultValue Value returned when the key is not set.
+     * @return The parsed boolean value.
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,95 @@
+package automation.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+
+/**
+ * Single source of truth for how the framework waits.
+ *
+ * Implicit waits are turned OFF for every browser session ({@link #IMPLICIT_WAIT}).
+ * With an implicit wait, every findElement/findElements that comes back empty
+ * blocks for the full timeout, and it stacks on top of any explicit wait that
+ * polls through it. Instead:
+ *   - positive checks ("element appears") use an explicit, condition-specific wait
+ *     from {@link #explicitWait(WebDriver)}, which polls adaptively (see {@link AdaptiveWait});
+ *   - negative checks ("element is absent") use {@link #isAbsent} /
+ *     {@link #assertAbsent}, which cost a single findElements round-trip;
+ *   - timing-sensitive DOM changes (notifications, recalculated totals) use
+ *     {@link DomWait}, which resolves from a MutationObserver in one round-trip.
+ *
+ * Config (config.properties or -D):
+ *   wait.timeoutSeconds - explicit wait timeout (default 10)
+ */
+public final class WaitPolicy {
+
+    /** Implicit wait applied to every session. Zero: all waiting is explicit. */
+    public static final Duration IMPLICIT_WAIT = Duration.ZERO;
+
+    /** Default timeout for explicit waits. */
+    public static final Duration DEFAULT_TIMEOUT =
+        Duration.ofSeconds(TestConfig.getInt("wait.timeoutSeconds", 10));
+
+    /**
+     * Script timeout applied to every session. Must outlast any DomWait, which runs
+     * as a single executeAsyncScript call for up to DEFAULT_TIMEOUT.
+     */
+    public static final Duration SCRIPT_TIMEOUT = DEFAULT_TIMEOUT.plusSeconds(5).compareTo(Duration.ofSeconds(30)) > 0
+        ? DEFAULT_TIMEOUT.plusSeconds(5)
+        : Duration.ofSeconds(30);
+
+    private WaitPolicy() {
+    }
+
+    /**
+     * Create the explicit wait page objects use for positive conditions.
+     *
+     * @param driver The WebDriver to wait on.
+     * @return A wait with the default timeout.
+     */
+    public static AdaptiveWait explicitWait(WebDriver driver) {
+        return explicitWait(driver, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Create an explicit wait with a custom timeout.
+     *
+     * @param driver The WebDriver to wait on.
+     * @param timeout Maximum time to wait.
+     * @return A wait with the given timeout.
+     */
+    public static AdaptiveWait explicitWait(WebDriver driver, Duration timeout) {
+        return new AdaptiveWait(driver, timeout);
+    }
+
+    /**
+     * Check that no element matches the locator, right now.
+     * One findElements call; returns immediately because implicit waits are off.
+     *
+     * @param context The driver or element to search within.
+     * @param locator The locator that should match nothing.
+     * @return true if nothing matches.
+     */
+    public static boolean isAbsent(SearchContext context, By locator) {
+        return context.findElements(locator).isEmpty();
+    }
+
+    /**
+     * Assert that no element matches the locator, right now.
+     *
+     * @param context The driver or element to search within.
+     * @param locator The locator that should match nothing.
+     * @param description Human-readable name used in the failure message (e.g., "cart rows").
+     * @throws AssertionError If one or more elements match.
+     */
+    public static void assertAbsent(SearchContext context, By locator, String description) {
+        int found = context.findElements(locator).size();
+        if (found > 0) {
+            throw new AssertionError(
+                "Expected no " + description + ", but found " + found
+            );
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Seed catalog for the in-JVM stub server (item 1 must stay "Koala"; the UI tests rely on it).
+INSERT INTO items (id, name, price, image) VALUES (1, 'Koala', 12.99, 'koala.svg');
+INSERT INTO items (id, name, price, image) VALUES (2, 'Dog', 9.99, 'dog.svg');
+INSERT INTO items (id, name, price, image) VALUES (3, 'Cat', 9.99, 'cat.svg');
+INSERT INTO items (id, name, price, image) VALUES (4, 'Lion', 15.49, 'lion.svg');
+INSERT INTO items (id, name, price, image) VALUES (5, 'Penguin', 11.25, 'penguin.svg');
+INSERT INTO items (id, name, price, image) VALUES (6, 'Owl', 8.75, 'owl.svg');
@@ -0,0 +1,13 @@
+-- Schema of the app's shop.db: the product catalog and the single server-side cart.
+-- Used by the in-JVM stub server to build its database.
+CREATE TABLE IF NOT EXISTS items (
+    id INTEGER PRIMARY KEY,
+    name TEXT NOT NULL,
+    price REAL NOT NULL,
+    image TEXT
+);
+
+CREATE TABLE IF NOT EXISTS cart (
+    item_id INTEGER PRIMARY KEY REFERENCES items(id),
+    quantity INTEGER NOT NULL DEFAULT 1
+);